@@ -0,0 +1,38 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.Random;
+
+/*
+ * Instances used by the benchmarks: "input.txt" (read from the working directory), a number of items, in
+ * which case weights are drawn uniformly in [20, 100] with capacity 150 like input.txt, or "<items>x<d>"
+ * for a d-dimensional instance drawn the same way in every dimension.
+ */
+public class BenchmarkInstances {
+
+    static final int GENERATED_CAPACITY = 150;
+
+    static BinPackingInstance load(String instance) throws IOException {
+        if (instance.endsWith(".txt") || instance.endsWith(".bin")) {
+            return InstanceLoader.load(instance);
+        }
+        String[] parts = instance.split("x");
+        int items = Integer.parseInt(parts[0]);
+        int dimensions = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+        Random random = new Random(items);
+        int[][] demands = new int[dimensions][items];
+        int[] capacities = new int[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            capacities[d] = GENERATED_CAPACITY;
+            for (int i = 0; i < items; i++) {
+                demands[d][i] = 20 + random.nextInt(81);
+            }
+        }
+        return new BinPackingInstance(demands, capacities);
+    }
+
+    // L1 lower bound: ceil(total demand / capacity), in the tightest dimension
+    static int lowerBound(BinPackingInstance instance) {
+        return LowerBounds.l1(instance);
+    }
+}
@@ -0,0 +1,75 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * The scalar FeasibilityKernel against VectorFeasibilityKernel, in 1-D and d-D, on the loads of a first-fit
+ * decreasing packing: fitMask over every bin (the ants' scan), and firstFit for the largest item, which fits in
+ * few bins and so scans most of them (the GA's repair). The fork always gets the incubator module, so both
+ * kernels run in the same JVM configuration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class FeasibilityBenchmarks {
+
+    @Param({"10000", "10000x2", "10000x3"})
+    public String instance;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    BinPackingInstance data;
+    FeasibilityKernel feasibility;
+    int[] loads;
+    int binCount;
+    int largest;
+    boolean[] mask;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkInstances.load(instance);
+        if (kernel.equals("scalar")) {
+            feasibility = new FeasibilityKernel.Scalar();
+        } else {
+            feasibility = FeasibilityKernel.load();
+            if (feasibility instanceof FeasibilityKernel.Scalar) {
+                throw new IllegalStateException("the vector kernel needs --add-modules jdk.incubator.vector");
+            }
+        }
+        int[] order = ConstructionHeuristics.decreasingOrder(data);
+        loads = data.newLoads();
+        binCount = ConstructionHeuristics.pack(data, order, ConstructionHeuristics.Rule.FIRST_FIT,
+                new int[data.items], loads);
+        largest = order[0];
+        mask = new boolean[data.items];
+    }
+
+    @Benchmark
+    public boolean[] fitMask() {
+        feasibility.fitMask(loads, data.items, 0, binCount, data.demands, data.capacities, largest, mask);
+        return mask;
+    }
+
+    @Benchmark
+    public int firstFit() {
+        return feasibility.firstFit(loads, data.items, 0, binCount, data.demands, data.capacities, largest);
+    }
+}
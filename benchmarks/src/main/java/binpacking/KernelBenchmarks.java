@@ -0,0 +1,119 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Inner kernels of the solvers, measured in isolation on a population / swarm / colony built once per trial.
+ * Kernels that modify their input (mutate, updateBins) are called on the same state again, which stays a
+ * valid input for the next call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBenchmarks {
+
+    @Param({"input.txt", "1000", "10000", "100000", "10000x3"})
+    public String instance;
+
+    static final int POPULATION = 100;
+
+    BinPackingInstance data;
+    BinPackingInstance sorted; // items in decreasing order, as the GA expects
+    Random random;
+
+    ArrayList<BinPackingGeneticAlgorithm.Chromosome> population;
+    BinPackingPSO.Particle particle;
+    BinPackingPSO.Workspace workspace;
+    AntColonyOptimization.PheromoneMatrix pheromones;
+    AntColonyOptimization.Ant[] ants;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkInstances.load(instance);
+        sorted = data.permute(ConstructionHeuristics.decreasingOrder(data));
+        random = new Random(42);
+        population = BinPackingGeneticAlgorithm.initializePopulation(sorted, Objective.BIN_COUNT, POPULATION,
+                random);
+        workspace = new BinPackingPSO.Workspace(data);
+        particle = BinPackingPSO.initializeSwarm(data, 1, random, workspace).get(0);
+        pheromones = AntColonyOptimization.initializePheromones(1, data.items);
+        int[] order = ConstructionHeuristics.decreasingOrder(data);
+        ants = new AntColonyOptimization.Ant[4];
+        for (int k = 0; k < ants.length; k++) {
+            ants[k] = new AntColonyOptimization.Ant(k, data);
+            AntColonyOptimization.packItems(order, data, pheromones, ants[k]);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<BinPackingGeneticAlgorithm.Chromosome> firstFitInitialization() {
+        return BinPackingGeneticAlgorithm.initializePopulation(sorted, Objective.BIN_COUNT, 1, random);
+    }
+
+    // Full re-scan of every chromosome, i.e. the cost incremental fitness avoids
+    @Benchmark
+    public ArrayList<BinPackingGeneticAlgorithm.Chromosome> evaluateFitness() {
+        BinPackingGeneticAlgorithm.evaluateFitness(population, sorted, Objective.BIN_COUNT);
+        return population;
+    }
+
+    @Benchmark
+    public ArrayList<BinPackingGeneticAlgorithm.Chromosome> crossover() {
+        return BinPackingGeneticAlgorithm.crossover(population, POPULATION, sorted, Objective.BIN_COUNT, random);
+    }
+
+    @Benchmark
+    public ArrayList<BinPackingGeneticAlgorithm.Chromosome> mutate() {
+        BinPackingGeneticAlgorithm.mutate(population, 1.0, sorted, Objective.BIN_COUNT, random);
+        return population;
+    }
+
+    @Benchmark
+    public BinPackingPSO.Particle updateVelocity() {
+        BinPackingPSO.updateVelocity(particle, particle.personalBest, 0.9, 2.0, 2.0, random, workspace);
+        return particle;
+    }
+
+    // Feasibility of one item in every bin of the particle's packing, one bin at a time (see FeasibilityBenchmarks
+    // for the scans over a range of bins)
+    @Benchmark
+    public void fitsInBin(Blackhole blackhole) {
+        BinPackingPSO.Position position = particle.position;
+        for (int bin = 0; bin < position.binCount; bin++) {
+            blackhole.consume(data.fits(position.loads, bin, 0));
+        }
+    }
+
+    // Applies the velocity and decodes the order with the reusable first-fit packer
+    @Benchmark
+    public BinPackingPSO.Particle updateBins() {
+        BinPackingPSO.updateBins(particle, data, workspace);
+        return particle;
+    }
+
+    @Benchmark
+    public AntColonyOptimization.PheromoneMatrix updatePheromones() {
+        AntColonyOptimization.updatePheromones(pheromones, ants, ants[0].solution);
+        return pheromones;
+    }
+}
@@ -0,0 +1,82 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Move evaluations per second of the local search (see LocalSearch), one call of MOVES evaluations per
+ * invocation, on a first-fit packing of a perturbed decreasing order (as the GA and PSO start from). Calls work
+ * in place, so later ones start from the improved packing and spend more of their budget on moves that fail;
+ * each call also rebuilds its bin lists and buckets, O(items).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalSearchBenchmarks {
+
+    @Param({"input.txt", "10000", "100000", "10000x3"})
+    public String instance;
+
+    @Param({"bins", "power", "fragmentation"})
+    public String objective;
+
+    static final int MOVES = 1_000_000;
+
+    BinPackingInstance data;
+    LocalSearch localSearch;
+    Random random;
+    int[] assignment;
+    int[] loads;
+    int binCount;
+    int cost;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkInstances.load(instance);
+        random = new Random(42);
+        Objective cost;
+        switch (objective) {
+            case "bins":
+                cost = Objective.BIN_COUNT;
+                break;
+            case "power":
+                cost = Objective.power(data, Objective.ML110_G5_WATTS);
+                break;
+            default:
+                cost = Objective.fragmentation(data);
+        }
+        localSearch = new LocalSearch(data, cost, MOVES);
+        int[] order = ConstructionHeuristics.decreasingOrder(data, 0.1, random);
+        assignment = new int[data.items];
+        loads = data.newLoads();
+        binCount = ConstructionHeuristics.pack(data, order, ConstructionHeuristics.Rule.FIRST_FIT, assignment,
+                loads);
+        this.cost = cost.score(data, loads, binCount, assignment);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int improve() {
+        binCount = localSearch.improve(assignment, loads, binCount, cost, random);
+        cost = localSearch.cost;
+        return binCount;
+    }
+}
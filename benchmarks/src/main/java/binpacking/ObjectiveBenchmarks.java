@@ -0,0 +1,98 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Evaluation throughput of the objectives (see Objective) against the bin-count fitness ("bins"), on the same
+ * GA population: full evaluation of every packing, and the incremental evaluation of the mutation moves.
+ * "migrations" charges each item its size for leaving its bin of the first-fit-decreasing packing, "green" is
+ * power + fragmentation + migrations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectiveBenchmarks {
+
+    @Param({"input.txt", "10000", "100000", "10000x3"})
+    public String instance;
+
+    @Param({"bins", "power", "fragmentation", "migrations", "green"})
+    public String objective;
+
+    static final int POPULATION = 100;
+
+    BinPackingInstance sorted;
+    Objective cost;
+    Random random;
+    ArrayList<BinPackingGeneticAlgorithm.Chromosome> population;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BinPackingInstance data = BenchmarkInstances.load(instance);
+        sorted = data.permute(ConstructionHeuristics.decreasingOrder(data));
+        random = new Random(42);
+        population = BinPackingGeneticAlgorithm.initializePopulation(sorted, Objective.BIN_COUNT, POPULATION,
+                random);
+        int[] sizes = new int[sorted.items];
+        for (int item = 0; item < sorted.items; item++) {
+            sizes[item] = sorted.demands[0][item];
+        }
+        Objective migrations = Objective.migrations(population.get(0).assignment, sizes);
+        switch (objective) {
+            case "bins":
+                cost = Objective.BIN_COUNT;
+                break;
+            case "power":
+                cost = Objective.power(sorted, Objective.ML110_G5_WATTS);
+                break;
+            case "fragmentation":
+                cost = Objective.fragmentation(sorted);
+                break;
+            case "migrations":
+                cost = migrations;
+                break;
+            default:
+                cost = Objective.sum(Objective.power(sorted, Objective.ML110_G5_WATTS),
+                        Objective.fragmentation(sorted), migrations);
+        }
+        for (BinPackingGeneticAlgorithm.Chromosome chromosome : population) {
+            chromosome.fitness = cost.score(sorted, chromosome.loads, chromosome.binCount, chromosome.assignment);
+        }
+    }
+
+    // Full evaluation of the population
+    @Benchmark
+    public long score() {
+        long total = 0;
+        for (BinPackingGeneticAlgorithm.Chromosome chromosome : population) {
+            total += cost.score(sorted, chromosome.loads, chromosome.binCount, chromosome.assignment);
+        }
+        return total;
+    }
+
+    // One swap move per chromosome, evaluated from the bins and items it changes
+    @Benchmark
+    public ArrayList<BinPackingGeneticAlgorithm.Chromosome> mutate() {
+        BinPackingGeneticAlgorithm.mutate(population, 1.0, sorted, cost, random);
+        return population;
+    }
+}
@@ -0,0 +1,30 @@
+package binpacking;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Secondary results of the end-to-end benchmarks, reported next to the score: binsUsed and lowerBound are
+ * summed over the invocations, so binsUsed / lowerBound is the average ratio to the L1 bound. A speedup that
+ * raises this ratio is paid for with worse packings.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class SolutionQuality {
+    public long binsUsed;
+    public long lowerBound;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        binsUsed = 0;
+        lowerBound = 0;
+    }
+
+    void record(int bins, int bound) {
+        binsUsed += bins;
+        lowerBound += bound;
+    }
+}
@@ -0,0 +1,86 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * End-to-end runs of the three solvers with a short, fixed search length. Each invocation is a full solve,
+ * so they are timed one shot at a time. Run with -prof gc to get the allocation rate; the SolutionQuality
+ * counters give the bins used against the L1 lower bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SolverBenchmarks {
+
+    @Param({"input.txt", "1000", "10000", "100000", "10000x3"})
+    public String instance;
+
+    @Param({"20"})
+    public int generations;
+
+    BinPackingInstance data;
+    BinPackingInstance sorted; // items in decreasing order, as the GA expects
+    int lowerBound;
+    ForkJoinPool pool;
+    SolverConfig config;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkInstances.load(instance);
+        sorted = data.permute(ConstructionHeuristics.decreasingOrder(data));
+        lowerBound = BenchmarkInstances.lowerBound(data);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        config = new SolverConfig();
+        config.generations = generations;
+        config.iterations = generations;
+        config.antIterations = generations;
+        config.ants = 16;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BinPackingGeneticAlgorithm.Chromosome geneticAlgorithm(SolutionQuality quality) {
+        BinPackingGeneticAlgorithm.Chromosome best = BinPackingGeneticAlgorithm.solve(sorted, config,
+                new Random(42), null);
+        quality.record(best.binCount, lowerBound);
+        return best;
+    }
+
+    @Benchmark
+    public BinPackingPSO.Position particleSwarm(SolutionQuality quality) {
+        BinPackingPSO.Position best = BinPackingPSO.solve(data, config, new Random(42), null);
+        quality.record(best.binCount, lowerBound);
+        return best;
+    }
+
+    @Benchmark
+    public AntColonyOptimization.Solution antColony(SolutionQuality quality) {
+        AntColonyOptimization.Solution best = AntColonyOptimization.solve(data, config, 42, pool, null);
+        quality.record(best.binCount, lowerBound);
+        return best;
+    }
+}
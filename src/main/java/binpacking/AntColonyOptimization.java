@@ -0,0 +1,731 @@
+package binpacking;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class AntColonyOptimization implements BinPackingSolver {
+
+    static final String NAME = "ACO";
+
+    private static final double EVAPORATION_RATE = 0.1;
+    private static final double PHEROMONE_INCREMENT = 5.0;
+    private static final float INITIAL_PHEROMONE = 1.0f;
+    private static final float MIN_PHEROMONE = 0.01f; // keeps every choice possible after many evaporations
+    private static final float KEEP = (float) (1 - EVAPORATION_RATE);
+    static final int CANDIDATE_BINS = 256; // open bins an ant considers for an item, see packItems
+    static final int STOP_CHECK = 1024;    // items an ant places between two checks of the incumbent
+
+    /*
+     * Pheromone trails tau(bin, item): how desirable it was to put the item in the bin of that index. A trail no
+     * ant has laid only depends on how many evaporations its bin has seen since the bin was first used, so it is
+     * not stored: each bin has a default trail, and each item keeps the few bins where its trail differs from
+     * it (the bins the ants put it in). Evaporation costs one pass over those, not over bins x items, and memory
+     * grows with the (bin, item) pairs the ants use instead of with bins x items. A stored trail that has
+     * evaporated down to its bin's default is dropped. The values are exactly those of a dense matrix.
+     */
+    static class PheromoneMatrix {
+        final int items;
+        int bins;
+        int evaporations;
+        int[] createdAt;         // evaporations when each bin was first used
+        float[] defaults;        // trail of each bin for the items that have none stored there
+        float[] decay = {INITIAL_PHEROMONE}; // decay[k]: initial trail after k evaporations, up to MIN_PHEROMONE
+        final int[][] trailBins; // per item, the bins with a stored trail: trailBins[item][0, trailCounts[item])
+        final float[][] trails;  // and the trails
+        final int[] trailCounts;
+
+        PheromoneMatrix(int bins, int items) {
+            this.items = items;
+            this.createdAt = new int[Math.max(bins, 1)];
+            this.defaults = new float[createdAt.length];
+            this.trailBins = new int[items][];
+            this.trails = new float[items][];
+            this.trailCounts = new int[items];
+            ensureBins(bins);
+        }
+
+        void ensureBins(int count) {
+            if (count > createdAt.length) {
+                int length = Math.max(count, createdAt.length * 2);
+                createdAt = Arrays.copyOf(createdAt, length);
+                defaults = Arrays.copyOf(defaults, length);
+            }
+            for (; bins < count; bins++) {
+                createdAt[bins] = evaporations;
+                defaults[bins] = INITIAL_PHEROMONE;
+            }
+        }
+
+        float get(int bin, int item) {
+            int[] stored = trailBins[item];
+            for (int k = 0; k < trailCounts[item]; k++) {
+                if (stored[k] == bin) {
+                    return trails[item][k];
+                }
+            }
+            return bin < bins ? defaults[bin] : INITIAL_PHEROMONE;
+        }
+
+        // out[bin] = get(bin, item) for the bins in [from, to)
+        void get(int item, int from, int to, float[] out) {
+            int known = Math.min(to, bins);
+            for (int bin = from; bin < known; bin++) {
+                out[bin] = defaults[bin];
+            }
+            for (int bin = Math.max(from, known); bin < to; bin++) {
+                out[bin] = INITIAL_PHEROMONE;
+            }
+            int[] stored = trailBins[item];
+            for (int k = 0; k < trailCounts[item]; k++) {
+                int bin = stored[k];
+                if (bin >= from && bin < to) {
+                    out[bin] = trails[item][k];
+                }
+            }
+        }
+
+        // out[bin] = get(bin, item) for the count bins of candidates, which it marks (out is not used elsewhere)
+        void get(int item, int[] candidates, int count, boolean[] marked, float[] out) {
+            for (int k = 0; k < count; k++) {
+                int bin = candidates[k];
+                out[bin] = bin < bins ? defaults[bin] : INITIAL_PHEROMONE;
+                marked[bin] = true;
+            }
+            int[] stored = trailBins[item];
+            for (int k = 0; k < trailCounts[item]; k++) {
+                if (marked[stored[k]]) {
+                    out[stored[k]] = trails[item][k];
+                }
+            }
+        }
+
+        // Evaporation of the default trails; evaporate(item) does the stored ones
+        void evaporate() {
+            evaporations++;
+            if (decay[decay.length - 1] > MIN_PHEROMONE) {
+                decay = Arrays.copyOf(decay, decay.length + 1);
+                decay[decay.length - 1] = Math.max(decay[decay.length - 2] * KEEP, MIN_PHEROMONE);
+            }
+            for (int bin = 0; bin < bins; bin++) {
+                defaults[bin] = decay[Math.min(evaporations - createdAt[bin], decay.length - 1)];
+            }
+        }
+
+        void evaporate(int item) {
+            int[] stored = trailBins[item];
+            float[] values = trails[item];
+            int count = trailCounts[item];
+            for (int k = 0; k < count; ) {
+                float value = Math.max(values[k] * KEEP, MIN_PHEROMONE);
+                if (value == defaults[stored[k]]) {
+                    count--;
+                    stored[k] = stored[count];
+                    values[k] = values[count];
+                } else {
+                    values[k++] = value;
+                }
+            }
+            trailCounts[item] = count;
+        }
+
+        // Adds amount to the trail of the item in bin, a bin below bins
+        void deposit(int bin, int item, float amount) {
+            int[] stored = trailBins[item];
+            int count = trailCounts[item];
+            for (int k = 0; k < count; k++) {
+                if (stored[k] == bin) {
+                    trails[item][k] += amount;
+                    return;
+                }
+            }
+            if (stored == null || count == stored.length) {
+                int length = Math.max(4, 2 * count);
+                trailBins[item] = stored = stored == null ? new int[length] : Arrays.copyOf(stored, length);
+                trails[item] = trails[item] == null ? new float[length] : Arrays.copyOf(trails[item], length);
+            }
+            stored[count] = bin;
+            trails[item][count] = defaults[bin] + amount;
+            trailCounts[item] = count + 1;
+        }
+
+        // Stored trails, for the scaling reports
+        long storedTrails() {
+            long total = 0;
+            for (int count : trailCounts) {
+                total += count;
+            }
+            return total;
+        }
+
+        // For Checkpoint; the default trails follow from the evaporation count and the creation of the bins
+        void save(Snapshot.Writer snapshot) {
+            snapshot.putInt(evaporations);
+            snapshot.putInts(createdAt, bins);
+            for (int item = 0; item < items; item++) {
+                snapshot.putInts(trailBins[item], trailCounts[item]);
+                snapshot.putFloats(trails[item], trailCounts[item]);
+            }
+        }
+
+        void restore(Snapshot.Reader snapshot) {
+            int target = snapshot.getInt();
+            while (evaporations < target) {
+                evaporate();
+            }
+            int[] created = snapshot.getInts();
+            ensureBins(created.length);
+            System.arraycopy(created, 0, createdAt, 0, created.length);
+            for (int bin = 0; bin < bins; bin++) {
+                defaults[bin] = decay[Math.min(evaporations - createdAt[bin], decay.length - 1)];
+            }
+            for (int item = 0; item < items; item++) {
+                trailBins[item] = snapshot.getInts();
+                trails[item] = snapshot.getFloats();
+                trailCounts[item] = trailBins[item].length;
+            }
+        }
+    }
+
+    // One ant's packing: assignment[item] = bin index, with the bin loads kept alongside
+    static class Solution {
+        int[] assignment;
+        int[] loads;
+        int binCount = Integer.MAX_VALUE; // no packing yet
+        double quality;
+        int cost = Integer.MAX_VALUE; // under an objective that does not rank by bin count first, see Objective
+
+        Solution(BinPackingInstance instance) {
+            this.assignment = new int[instance.items];
+            this.loads = instance.newLoads();
+        }
+
+        void copyFrom(Solution other) {
+            System.arraycopy(other.assignment, 0, assignment, 0, assignment.length);
+            System.arraycopy(other.loads, 0, loads, 0, loads.length);
+            binCount = other.binCount;
+            quality = other.quality;
+            cost = other.cost;
+        }
+    }
+
+    /*
+     * Per-ant state: its own random stream, solution and scratch buffers, reused across iterations. The buffers
+     * only grow, so that an ant also serves the following instances of a colony (see reset and antPool).
+     */
+    static class Ant {
+        Random random;
+        final Solution solution;
+        double[] probabilities;
+        boolean[] fits;
+        float[] trails;
+        final ResidualBuckets open; // the bins of its packing where some item may still fit
+        final int[] candidates = new int[CANDIDATE_BINS];
+        LocalSearch localSearch;    // run on each of its packings, may be null
+
+        Ant(long seed, BinPackingInstance instance) {
+            this(new RestorableRandom(seed), instance);
+        }
+
+        Ant(Random random, BinPackingInstance instance) {
+            this.random = random;
+            this.solution = new Solution(instance);
+            this.probabilities = new double[instance.items];
+            this.fits = new boolean[instance.items];
+            this.trails = new float[instance.items];
+            this.open = new ResidualBuckets(instance);
+        }
+
+        // Makes this a new ant of the instance with the given stream: no packing yet, buffers grown to fit
+        void reset(Random random, BinPackingInstance instance) {
+            this.random = random;
+            if (solution.assignment.length < instance.items) {
+                solution.assignment = new int[instance.items];
+            }
+            if (solution.loads.length < instance.dimensions * instance.items) {
+                solution.loads = instance.newLoads();
+            }
+            solution.binCount = Integer.MAX_VALUE;
+            solution.quality = 0;
+            solution.cost = Integer.MAX_VALUE;
+            if (probabilities.length < instance.items) {
+                probabilities = new double[instance.items];
+                fits = new boolean[instance.items];
+                trails = new float[instance.items];
+            }
+            open.reset(instance);
+        }
+
+        // ant reset for the instance, or a new ant when there is none to reuse
+        static Ant reuse(Ant ant, Random random, BinPackingInstance instance) {
+            if (ant == null) {
+                return new Ant(random, instance);
+            }
+            ant.reset(random, instance);
+            return ant;
+        }
+    }
+
+    static PheromoneMatrix initializePheromones(int bins, int items) {
+        return new PheromoneMatrix(bins, items);
+    }
+
+    /*
+     * Builds one ant's solution. Items are taken in the given order (largest first) and each one goes into an
+     * open bin where it fits, chosen with probability proportional to tau * eta^2 (alpha = 1, beta = 2), where
+     * eta is the (mean) fill level of the bin after placing the item. A new bin is opened only when nothing fits.
+     * The bins where the item fits are found first, in one vectorized scan (see FeasibilityKernel).
+     *
+     * Bins that no item fits anymore (too little room left for the smallest demand in some dimension) are not
+     * looked at. When more than CANDIDATE_BINS bins may still be open, the ant only chooses among the
+     * CANDIDATE_BINS bins with the least room left in the first dimension where the item fits, found in the
+     * buckets of ResidualBuckets instead of by a scan: these have the highest eta, and a packing costs
+     * O(items * CANDIDATE_BINS) instead of O(items * bins). Smaller instances see every open bin.
+     */
+    static void packItems(int[] order, BinPackingInstance instance, PheromoneMatrix pheromones, Ant ant) {
+        packItems(order, instance, pheromones, ant, null);
+    }
+
+    /*
+     * Same, checking the incumbent (may be null) every STOP_CHECK items: on 10^5 items one ant can take longer
+     * than the whole budget. An ant stopped halfway has no packing (binCount is Integer.MAX_VALUE).
+     */
+    static void packItems(int[] order, BinPackingInstance instance, PheromoneMatrix pheromones, Ant ant,
+                          Incumbent incumbent) {
+        Solution solution = ant.solution;
+        double[] probabilities = ant.probabilities;
+        boolean[] fits = ant.fits;
+        float[] trails = ant.trails;
+        ResidualBuckets open = ant.open;
+        int[] candidates = ant.candidates;
+        open.clear();
+        int bins = 0;
+        int firstOpen = 0;
+        for (int placed = 0; placed < order.length; placed++) {
+            int item = order[placed];
+            if (placed % STOP_CHECK == 0 && incumbent != null && incumbent.shouldStop()) {
+                solution.binCount = Integer.MAX_VALUE;
+                solution.cost = Integer.MAX_VALUE;
+                return;
+            }
+            int chosenBin;
+            if (bins - firstOpen <= CANDIDATE_BINS) {
+                instance.fitMask(solution.loads, firstOpen, bins, item, fits);
+                pheromones.get(item, firstOpen, bins, trails);
+                double total = 0;
+                for (int j = firstOpen; j < bins; j++) {
+                    double p = 0;
+                    if (fits[j]) {
+                        double eta = instance.fill(solution.loads, j, item);
+                        p = trails[j] * eta * eta;
+                    }
+                    probabilities[j] = p;
+                    total += p;
+                }
+                if (total == 0) {
+                    chosenBin = -1;
+                } else {
+                    double r = ant.random.nextDouble() * total;
+                    chosenBin = firstOpen;
+                    while (chosenBin < bins - 1 && (r -= probabilities[chosenBin]) >= 0) {
+                        chosenBin++;
+                    }
+                    while (probabilities[chosenBin] == 0) { // rounding may land on a bin where the item does not fit
+                        chosenBin--;
+                    }
+                }
+            } else {
+                int count = findCandidates(instance, solution.loads, open, item, candidates);
+                pheromones.get(item, candidates, count, fits, trails);
+                double total = 0;
+                for (int k = 0; k < count; k++) {
+                    double eta = instance.fill(solution.loads, candidates[k], item);
+                    probabilities[k] = trails[candidates[k]] * eta * eta;
+                    total += probabilities[k];
+                }
+                if (total == 0) {
+                    chosenBin = -1;
+                } else {
+                    double r = ant.random.nextDouble() * total;
+                    int k = 0;
+                    while (k < count - 1 && (r -= probabilities[k]) >= 0) {
+                        k++;
+                    }
+                    while (probabilities[k] == 0) {
+                        k--;
+                    }
+                    chosenBin = candidates[k];
+                }
+            }
+            if (chosenBin < 0) {
+                chosenBin = bins++;
+                instance.clearLoads(solution.loads, chosenBin);
+            }
+            solution.assignment[item] = chosenBin;
+            instance.add(solution.loads, chosenBin, item);
+            if (instance.isClosed(solution.loads, chosenBin)) {
+                open.remove(chosenBin);
+            } else {
+                open.put(chosenBin, instance.capacities[0] - solution.loads[chosenBin]);
+            }
+            while (firstOpen < bins && instance.isClosed(solution.loads, firstOpen)) {
+                firstOpen++;
+            }
+        }
+        solution.binCount = bins;
+        solution.quality = quality(solution, instance);
+    }
+
+    /*
+     * Up to CANDIDATE_BINS open bins where the item fits, by increasing room in the first dimension from the
+     * bucket of its demand on. Gives up after looking at 4 * CANDIDATE_BINS bins: with several dimensions the
+     * first one may have room in bins where another is full.
+     */
+    static int findCandidates(BinPackingInstance instance, int[] loads, ResidualBuckets open, int item,
+                              int[] candidates) {
+        int count = 0;
+        int budget = 4 * CANDIDATE_BINS;
+        for (int bucket = open.bucket(instance.demands[0][item]); bucket < open.heads.length; bucket++) {
+            for (int bin = open.heads[bucket]; bin >= 0; bin = open.next[bin]) {
+                if (instance.fits(loads, bin, item)) {
+                    candidates[count++] = bin;
+                    if (count == CANDIDATE_BINS) {
+                        return count;
+                    }
+                }
+                if (--budget == 0) {
+                    return count;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Runs the ant's local search on the packing it just built; the trails then reinforce the improved packing
+    static void improve(Ant ant, BinPackingInstance instance, Objective objective) {
+        Solution solution = ant.solution;
+        int cost = objective.score(instance, solution.loads, solution.binCount, solution.assignment);
+        solution.binCount = ant.localSearch.improve(solution.assignment, solution.loads, solution.binCount, cost,
+                ant.random);
+        solution.cost = ant.localSearch.cost;
+        solution.quality = quality(solution, instance);
+    }
+
+    // Falkenauer's fitness: mean squared fill ratio of the bins, 1.0 for a perfect packing
+    static double quality(Solution solution, BinPackingInstance instance) {
+        double sum = 0;
+        for (int j = 0; j < solution.binCount; j++) {
+            double fill = instance.fill(solution.loads, j, -1);
+            sum += fill * fill;
+        }
+        return sum / solution.binCount;
+    }
+
+    /*
+     * Evaporates every trail once per iteration, then every ant deposits quality / ants on its (bin, item)
+     * pairs and the iteration best deposits its full quality on top. The ants' assignments serve as sparse
+     * deposit buffers: each task owns one item, evaporates its trails and sums the ants in index order, so the
+     * merge needs no lock and gives the same result for any number of threads.
+     */
+    static void updatePheromones(PheromoneMatrix pheromones, Ant[] ants, Solution best) {
+        updatePheromones(pheromones, ants, best, true);
+    }
+
+    // The same, item by item on the calling thread unless parallel
+    static void updatePheromones(PheromoneMatrix pheromones, Ant[] ants, Solution best, boolean parallel) {
+        int bins = best.binCount;
+        for (Ant ant : ants) {
+            bins = Math.max(bins, ant.solution.binCount);
+        }
+        pheromones.ensureBins(bins);
+        pheromones.evaporate();
+        float[] deposits = new float[ants.length];
+        for (int k = 0; k < ants.length; k++) {
+            deposits[k] = (float) (PHEROMONE_INCREMENT * ants[k].solution.quality / ants.length);
+        }
+        float bestDeposit = (float) (PHEROMONE_INCREMENT * best.quality);
+        IntStream items = IntStream.range(0, pheromones.items);
+        (parallel ? items.parallel() : items).forEach(item -> {
+            pheromones.evaporate(item);
+            for (int k = 0; k < ants.length; k++) {
+                pheromones.deposit(ants[k].solution.assignment[item], item, deposits[k]);
+            }
+            pheromones.deposit(best.assignment[item], item, bestDeposit);
+        });
+    }
+
+    /*
+     * Runs the colony: every iteration the ants build their packings concurrently on the pool (one after the
+     * other on the calling thread when pool is null), the iteration best deposits pheromone and the best packing
+     * found so far is kept across iterations. Ant k always uses the random stream derived from seed and k, so the
+     * result does not depend on the pool size.
+     * Fitness reported to config.metrics (which may be null) is the bin count. With an incumbent (may be null)
+     * the colony stops when it says so and offers it every new best packing; the colony does not import packings
+     * from other solvers, since its trails only learn from its own ants. The exception is a packing already in the
+     * incumbent when the colony starts (a warm start): it becomes the best so far and lays its trails as an
+     * iteration best would. With config.checkpoint the colony saves its state (trails, ant streams, best so far)
+     * when due and at the end, or continues from the snapshot it was given to resume from.
+     * The ants rank their packings by config.objective; the trails still learn from the fill of the bins (see
+     * quality), which every objective of a placement also rewards.
+     */
+    static Solution solve(BinPackingInstance instance, SolverConfig config, long seed, ForkJoinPool pool,
+                          Incumbent incumbent) {
+        return solve(instance, config, seed, pool, incumbent, new Ant[config.ants]);
+    }
+
+    // Same with the ants of an earlier run to reuse (null entries are new ants); ants.length is config.ants
+    static Solution solve(BinPackingInstance instance, SolverConfig config, long seed, ForkJoinPool pool,
+                          Incumbent incumbent, Ant[] ants) {
+        int antCount = config.ants;
+        SolverMetrics metrics = config.metrics;
+        Objective objective = config.objective;
+        boolean byCost = !objective.binsFirst();
+        int[] order = ConstructionHeuristics.decreasingOrder(instance);
+        PheromoneMatrix pheromones = initializePheromones(1, instance.items); // Start with 1 bin
+        Solution bestSoFar = new Solution(instance);
+        bestSoFar.binCount = Integer.MAX_VALUE;
+        bestSoFar.cost = Integer.MAX_VALUE;
+        Checkpoint checkpoint = config.checkpoint;
+        Snapshot.Reader snapshot = checkpoint == null ? null : checkpoint.resume(NAME, instance);
+        int iteration = 0;
+        if (snapshot != null) {
+            iteration = restore(snapshot, instance, pheromones, ants, bestSoFar);
+            if (byCost && bestSoFar.binCount != Integer.MAX_VALUE) {
+                bestSoFar.cost = objective.score(instance, bestSoFar.loads, bestSoFar.binCount, bestSoFar.assignment);
+            }
+            snapshot.restoreIncumbent(incumbent);
+        } else {
+            for (int k = 0; k < antCount; k++) {
+                ants[k] = Ant.reuse(ants[k], new RestorableRandom(seed + k * 0x9E3779B97F4A7C15L), instance);
+            }
+            Packing warmStart = incumbent == null ? null : incumbent.best();
+            if (warmStart != null) {
+                seed(pheromones, bestSoFar, incumbent.assignmentOf(warmStart), warmStart.binCount, instance);
+                bestSoFar.cost = warmStart.fitness;
+            }
+        }
+        for (Ant ant : ants) {
+            ant.localSearch = LocalSearch.of(ant.localSearch, instance, objective, config);
+        }
+        Solution iterationBest = new Solution(instance);
+        for (; iteration < config.antIterations; iteration++) {
+            if (incumbent != null && incumbent.shouldStop()) {
+                break;
+            }
+            long start = metrics == null ? 0 : System.nanoTime();
+            // an ant that starts after the stop keeps its previous (valid) packing, one stopped halfway has none;
+            // the loop ends just below
+            Runnable build = () -> {
+                IntStream antIndices = IntStream.range(0, antCount);
+                (pool == null ? antIndices : antIndices.parallel()).forEach(k -> {
+                    if (incumbent == null || !incumbent.shouldStop()) {
+                        Solution solution = ants[k].solution;
+                        packItems(order, instance, pheromones, ants[k], incumbent);
+                        if (solution.binCount == Integer.MAX_VALUE) {
+                            return;
+                        }
+                        // under migrations the bins take the numbers of the previous hosts, and so do the trails
+                        objective.align(instance, solution.assignment, solution.loads, solution.binCount);
+                        if (ants[k].localSearch != null) {
+                            improve(ants[k], instance, objective);
+                        } else if (byCost) {
+                            solution.cost = objective.score(instance, solution.loads, solution.binCount,
+                                    solution.assignment);
+                        }
+                    }
+                });
+            };
+            run(pool, build);
+            iterationBest.binCount = Integer.MAX_VALUE;
+            iterationBest.cost = Integer.MAX_VALUE;
+            for (Ant ant : ants) {
+                if (isBetter(ant.solution, iterationBest, byCost)) {
+                    iterationBest.copyFrom(ant.solution);
+                }
+            }
+            if (isBetter(iterationBest, bestSoFar, byCost)) {
+                bestSoFar.copyFrom(iterationBest);
+                if (incumbent != null) {
+                    incumbent.offer(bestSoFar.assignment, bestSoFar.binCount, byCost ? bestSoFar.cost
+                            : objective.score(instance, bestSoFar.loads, bestSoFar.binCount, bestSoFar.assignment),
+                            NAME);
+                }
+            }
+            if (incumbent != null && incumbent.shouldStop()) {
+                break; // some ants may not have built a packing this iteration: no trails from them
+            }
+            run(pool, () -> updatePheromones(pheromones, ants, iterationBest, pool != null));
+            if (metrics != null) {
+                long bins = 0;
+                for (Ant ant : ants) {
+                    bins += ant.solution.binCount;
+                }
+                metrics.binGeneration(start, bestSoFar.binCount, (double) bins / antCount, antCount);
+            }
+            if (checkpoint != null && checkpoint.due()) {
+                checkpoint.save(snapshot(instance, iteration + 1, pheromones, ants, bestSoFar, incumbent));
+            }
+        }
+        if (checkpoint != null) {
+            checkpoint.save(snapshot(instance, iteration, pheromones, ants, bestSoFar, incumbent));
+        }
+        if (bestSoFar.binCount == Integer.MAX_VALUE) {
+            // stopped before the first ant was done: first-fit decreasing, so that there is a packing to return
+            Arrays.fill(bestSoFar.loads, 0);
+            bestSoFar.binCount = ConstructionHeuristics.pack(instance, order, ConstructionHeuristics.Rule.FIRST_FIT,
+                    bestSoFar.assignment, bestSoFar.loads);
+            objective.align(instance, bestSoFar.assignment, bestSoFar.loads, bestSoFar.binCount);
+            bestSoFar.quality = quality(bestSoFar, instance);
+            bestSoFar.cost = objective.score(instance, bestSoFar.loads, bestSoFar.binCount, bestSoFar.assignment);
+            if (incumbent != null) {
+                incumbent.offer(bestSoFar.assignment, bestSoFar.binCount, bestSoFar.cost, NAME);
+            }
+        }
+        return bestSoFar;
+    }
+
+    // Runs task on pool and waits for it, or runs it on the calling thread when there is no pool
+    private static void run(ForkJoinPool pool, Runnable task) {
+        if (pool == null) {
+            task.run();
+        } else {
+            pool.submit(task).join();
+        }
+    }
+
+    // State of the colony before the given iteration, for Checkpoint; loads follow from the assignment
+    static Snapshot.Writer snapshot(BinPackingInstance instance, int iteration, PheromoneMatrix pheromones,
+                                    Ant[] ants, Solution bestSoFar, Incumbent incumbent) {
+        Snapshot.Writer snapshot = new Snapshot.Writer(NAME, instance);
+        snapshot.putInt(iteration);
+        snapshot.putInt(ants.length);
+        for (Ant ant : ants) {
+            snapshot.putRandom(ant.random);
+        }
+        pheromones.save(snapshot);
+        snapshot.putInts(bestSoFar.assignment, bestSoFar.assignment.length);
+        snapshot.putInt(bestSoFar.binCount);
+        snapshot.putDouble(bestSoFar.quality);
+        snapshot.putIncumbent(incumbent);
+        return snapshot;
+    }
+
+    // Restores what snapshot() saved, up to the incumbent; returns the iteration to continue from
+    private static int restore(Snapshot.Reader snapshot, BinPackingInstance instance, PheromoneMatrix pheromones,
+                               Ant[] ants, Solution bestSoFar) {
+        int iteration = snapshot.getInt();
+        int antCount = snapshot.getInt();
+        if (antCount != ants.length) {
+            throw new IllegalStateException("snapshot of " + antCount + " ants, not " + ants.length);
+        }
+        for (int k = 0; k < antCount; k++) {
+            ants[k] = Ant.reuse(ants[k], snapshot.getRandom(), instance);
+        }
+        pheromones.restore(snapshot);
+        int[] assignment = snapshot.getInts();
+        bestSoFar.binCount = snapshot.getInt();
+        bestSoFar.quality = snapshot.getDouble();
+        if (bestSoFar.binCount != Integer.MAX_VALUE) {
+            System.arraycopy(assignment, 0, bestSoFar.assignment, 0, assignment.length);
+            for (int item = 0; item < assignment.length; item++) {
+                instance.add(bestSoFar.loads, assignment[item], item);
+            }
+        }
+        return iteration;
+    }
+
+    // Makes solution the given packing and deposits the pheromone of an iteration best on its (bin, item) pairs
+    static void seed(PheromoneMatrix pheromones, Solution solution, int[] assignment, int binCount,
+                     BinPackingInstance instance) {
+        System.arraycopy(assignment, 0, solution.assignment, 0, assignment.length);
+        Arrays.fill(solution.loads, 0);
+        for (int item = 0; item < assignment.length; item++) {
+            instance.add(solution.loads, assignment[item], item);
+        }
+        solution.binCount = binCount;
+        solution.quality = quality(solution, instance);
+        pheromones.ensureBins(binCount);
+        float deposit = (float) (PHEROMONE_INCREMENT * solution.quality);
+        for (int item = 0; item < assignment.length; item++) {
+            pheromones.deposit(assignment[item], item, deposit);
+        }
+    }
+
+    // Fewer bins, then fuller ones; or by cost first when the objective does not rank by bin count first
+    static boolean isBetter(Solution candidate, Solution incumbent, boolean byCost) {
+        if (byCost && candidate.cost != incumbent.cost) {
+            return candidate.cost < incumbent.cost;
+        }
+        return candidate.binCount < incumbent.binCount
+                || (candidate.binCount == incumbent.binCount && candidate.quality > incumbent.quality);
+    }
+
+    // Ants of the finished runs, reused by the following ones (solve may be called from several threads)
+    private final ConcurrentLinkedQueue<Ant[]> antPool = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Packing solve(BinPackingInstance instance, SolverConfig config, long seed, Incumbent incumbent) {
+        // a single thread builds the ants itself: no pool to start and stop on every call (see BatchSolver)
+        ForkJoinPool pool = config.threads > 1 ? new ForkJoinPool(config.threads) : null;
+        Ant[] ants = antPool.poll();
+        ants = ants == null ? new Ant[config.ants] : Arrays.copyOf(ants, config.ants);
+        try {
+            Solution best = solve(instance, config, seed, pool, incumbent, ants);
+            return Packing.of(instance, best.assignment.clone(), best.binCount, NAME, config.objective);
+        } finally {
+            antPool.offer(ants);
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /*
+     * Optional argument: number of worker threads used to build the ants (defaults to the number of cores).
+     * Progress is reported in the background, see ProgressReporter for its system properties; snapshots and
+     * resuming are configured the same way, see Checkpoint, and so are the objective, see
+     * Objective.fromSystemProperties, and the local search run on each ant's packing, see LocalSearch.
+     */
+    public static void main(String[] args) {
+        try {
+            BinPackingInstance instance = InstanceLoader.load("input.txt");
+            SolverConfig config = new SolverConfig();
+            config.threads = args.length > 0 ? Integer.parseInt(args[0]) : config.threads;
+            config.objective = Objective.fromSystemProperties(instance);
+            config.localSearchMoves = LocalSearch.movesFromSystemProperties();
+            Packing best;
+            try (ProgressReporter reporter = ProgressReporter.fromSystemProperties(NAME);
+                     Checkpoint checkpoint = Checkpoint.fromSystemProperties()) {
+                config.metrics = reporter.metrics();
+                config.checkpoint = checkpoint;
+                best = new Preprocessing(new AntColonyOptimization())
+                        .solve(instance, config, 42, Incumbent.NO_DEADLINE);
+            }
+            List<List<String>> bins = new ArrayList<>();
+            for (int binIndex = 0; binIndex < best.binCount; binIndex++) {
+                bins.add(new ArrayList<>());
+            }
+            for (int item = 0; item < instance.items; item++) {
+                bins.get(best.assignment[item]).add("Item{id=" + item + ", weight=" + instance.label(item) + '}');
+            }
+            for (int binIndex = 0; binIndex < bins.size(); binIndex++) {
+                System.out.println("Bin " + binIndex + " contains: " + bins.get(binIndex));
+            }
+            System.out.println("Total number of bins used: " + bins.size());
+            BinPackingGeneticAlgorithm.printCost(config.objective, best.fitness);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package binpacking;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Batch mode: solves many independent instances concurrently, one task per instance on a fixed pool of worker
+ * threads, and writes one CSV line per instance as soon as it is solved (so in completion order, not input
+ * order). Instances come from a directory (its regular files, by name) or from standard input, one path per
+ * line, read only as workers free up: at most 2 * threads instances are loaded or queued at any time.
+ *
+ * Every instance gets the same time budget and seed, and a solver runs single-threaded since the parallelism is
+ * across instances. Each instance is reduced first (see Preprocessing), so an instance that first-fit decreasing
+ * solves to its lower bound once reduced costs no search at all. The solver object is shared by the workers,
+ * which lets it pool its buffers between instances (see BinPackingPSO.Scratch and AntColonyOptimization.Ant).
+ * The latency of an instance runs from the start of its loading to its result; the throughput and the latency
+ * percentiles (within 12.5%, see LatencyHistogram) go to standard error at the end.
+ *
+ * A directory of test instances can be written with the generate command, see main.
+ */
+public class BatchSolver {
+    static final String CSV_HEADER = "instance,items,bins,lower_bound,fitness,solver,latency_ms";
+
+    private final BinPackingSolver solver;
+    private final SolverConfig config;
+    private final long budget; // milliseconds per instance
+    private final long seed;
+    private final int threads;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong failures = new AtomicLong();
+
+    public BatchSolver(BinPackingSolver solver, SolverConfig config, long budget, long seed, int threads) {
+        this.solver = solver;
+        this.config = config;
+        this.budget = budget;
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    /*
+     * Solves the instances of paths, writing the result lines to out (which is flushed after each of them), and
+     * returns once all are done.
+     */
+    public void run(Iterator<Path> paths, BufferedWriter out) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore pending = new Semaphore(2 * threads);
+        try {
+            out.write(CSV_HEADER);
+            out.newLine();
+            out.flush();
+            while (paths.hasNext()) {
+                Path path = paths.next();
+                pending.acquire();
+                executor.execute(() -> {
+                    try {
+                        solve(path, out);
+                    } finally {
+                        pending.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void solve(Path path, BufferedWriter out) {
+        long start = System.nanoTime();
+        String line;
+        try {
+            BinPackingInstance instance = InstanceLoader.load(path);
+            Incumbent incumbent = new Incumbent(instance, Incumbent.deadlineIn(budget));
+            Packing packing = solver.solve(instance, config, seed, incumbent);
+            long latency = System.nanoTime() - start;
+            latencies.record(latency);
+            line = String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%s,%.3f", path, instance.items, packing.binCount,
+                    incumbent.lowerBound, packing.fitness, packing.solver, latency / 1e6);
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            System.err.println(path + ": " + e);
+            return;
+        }
+        synchronized (out) {
+            try {
+                out.write(line);
+                out.newLine();
+                out.flush();
+            } catch (IOException e) {
+                // standard output closed (e.g. piped into head): the remaining results are lost, not the run
+            }
+        }
+    }
+
+    public long solved() {
+        return latencies.count();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    public LatencyHistogram latencies() {
+        return latencies;
+    }
+
+    static BinPackingSolver solverNamed(String name) {
+        switch (name.toUpperCase(Locale.ROOT)) {
+            case "GA":
+                return new BinPackingGeneticAlgorithm();
+            case "PSO":
+                return new BinPackingPSO();
+            case "ACO":
+                return new AntColonyOptimization();
+            case "PORTFOLIO":
+                return new PortfolioSolver();
+            default:
+                throw new IllegalArgumentException("unknown solver " + name + " (GA, PSO, ACO or Portfolio)");
+        }
+    }
+
+    // The regular files of a directory by name, or the paths read from standard input when source is "-"
+    static Iterator<Path> instances(String source) throws IOException {
+        if (source.equals("-")) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            return in.lines().map(String::trim).filter(line -> !line.isEmpty()).map(Paths::get).iterator();
+        }
+        try (Stream<Path> files = Files.list(Paths.get(source))) {
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList()).iterator();
+        }
+    }
+
+    /*
+     * Writes count text instances of the given size and distribution (see InstanceGenerator) to directory;
+     * instance k uses the seed seed + k * 0x9E3779B97F4A7C15L.
+     */
+    static void generate(Path directory, int count, int items, long seed,
+                         InstanceGenerator.Distribution distribution) throws IOException {
+        Files.createDirectories(directory);
+        for (int k = 0; k < count; k++) {
+            Path path = directory.resolve(String.format(Locale.ROOT, "instance-%05d.txt", k));
+            InstanceLoader.writeText(path,
+                    InstanceGenerator.generate(distribution, items, seed + k * 0x9E3779B97F4A7C15L));
+        }
+    }
+
+    /*
+     * Usage:
+     *   BatchSolver <directory | -> [solver] [budget ms] [threads] [seed]
+     *       solver GA, PSO (default), ACO or Portfolio; budget per instance, default 100 ms; threads, default one
+     *       per core; seed, default 42
+     *   BatchSolver generate <directory> <count> [items] [seed] [distribution]
+     *       items default 250, seed default 42, distribution default falkenauer (see InstanceGenerator)
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: BatchSolver <directory | -> [solver] [budget ms] [threads] [seed]");
+            System.err.println("       BatchSolver generate <directory> <count> [items] [seed] [distribution]");
+            System.exit(1);
+        }
+        if (args[0].equals("generate")) {
+            int count = Integer.parseInt(args[2]);
+            int items = args.length > 3 ? Integer.parseInt(args[3]) : 250;
+            generate(Paths.get(args[1]), count, items, args.length > 4 ? Long.parseLong(args[4]) : 42,
+                    args.length > 5 ? InstanceGenerator.distributionNamed(args[5])
+                            : InstanceGenerator.Distribution.FALKENAUER);
+            System.out.println("Wrote " + count + " instances of " + items + " items to " + args[1]);
+            return;
+        }
+        BinPackingSolver solver = new Preprocessing(solverNamed(args.length > 1 ? args[1] : BinPackingPSO.NAME));
+        long budget = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        SolverConfig config = new SolverConfig();
+        config.threads = 1;
+        config.localSearchMoves = LocalSearch.movesFromSystemProperties();
+
+        BatchSolver batch = new BatchSolver(solver, config, budget, seed, threads);
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        long start = System.nanoTime();
+        batch.run(instances(args[0]), out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        LatencyHistogram latencies = batch.latencies();
+        System.err.printf(Locale.ROOT,
+                "Solved %d instances (%d failed) in %.2f s with %d threads: %.1f instances/s,"
+                        + " latency p50 %.1f ms, p99 %.1f ms%n",
+                batch.solved(), batch.failures(), seconds, threads, batch.solved() / seconds,
+                latencies.percentile(0.5) / 1e6, latencies.percentile(0.99) / 1e6);
+    }
+}
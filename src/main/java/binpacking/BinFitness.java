@@ -0,0 +1,67 @@
+package binpacking;
+
+/*
+ * Fitness shared by the GA and the PSO: every used bin costs 1, plus 1 if it is over capacity and 1 if it is
+ * filled below 75% of the capacity. The score is a sum of per-bin terms, so moving weight between bins only
+ * changes the terms of the bins involved and can be applied in O(1). With several dimensions a bin is over
+ * capacity if any dimension is, and underused if every dimension is below 75%.
+ */
+public class BinFitness {
+
+    public static int binScore(int load, int maxBinWeight) {
+        if (load == 0) {
+            return 0; // empty bins are not used
+        }
+        int score = 1;
+        if (load > maxBinWeight) {
+            score++;
+        }
+        if (load < maxBinWeight * 0.75) {
+            score++;
+        }
+        return score;
+    }
+
+    // Change of the total score when a bin goes from oldLoad to newLoad
+    public static int delta(int oldLoad, int newLoad, int maxBinWeight) {
+        return binScore(newLoad, maxBinWeight) - binScore(oldLoad, maxBinWeight);
+    }
+
+    // Full evaluation, only needed when the loads were not maintained incrementally
+    public static int score(int[] loads, int binCount, int maxBinWeight) {
+        int score = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            score += binScore(loads[bin], maxBinWeight);
+        }
+        return score;
+    }
+
+    // Score of one bin of a (possibly multi-dimensional) solution, loads laid out as in BinPackingInstance
+    public static int binScore(BinPackingInstance instance, int[] loads, int bin) {
+        if (instance.dimensions == 1) {
+            return binScore(loads[bin], instance.capacity);
+        }
+        boolean empty = true;
+        boolean over = false;
+        boolean under = true;
+        for (int d = 0; d < instance.dimensions; d++) {
+            int load = loads[d * instance.items + bin];
+            int capacity = instance.capacities[d];
+            empty &= load == 0;
+            over |= load > capacity;
+            under &= load < capacity * 0.75;
+        }
+        if (empty) {
+            return 0;
+        }
+        return 1 + (over ? 1 : 0) + (under ? 1 : 0);
+    }
+
+    public static int score(BinPackingInstance instance, int[] loads, int binCount) {
+        int score = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            score += binScore(instance, loads, bin);
+        }
+        return score;
+    }
+}
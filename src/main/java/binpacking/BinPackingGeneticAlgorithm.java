@@ -0,0 +1,678 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+public class BinPackingGeneticAlgorithm implements BinPackingSolver {
+    static final String NAME = "GA";
+    static final double INITIAL_ORDER_NOISE = 0.1;
+    static class Chromosome {
+        int[] assignment; // assignment[item] = index of the bin holding the item
+        int[] loads;      // loads[bin] = total weight in the bin (see BinPackingInstance for several dimensions)
+        int binCount;
+        int fitness;      // maintained incrementally, see Objective
+        public Chromosome(int[] assignment, int[] loads, int binCount, int fitness) {
+            this.assignment = assignment;
+            this.loads = loads;
+            this.binCount = binCount;
+            this.fitness = fitness;
+        }
+
+        // Rebuilds the bin contents from the assignment (used for printing only)
+        public ArrayList<ArrayList<String>> toBins(BinPackingInstance instance) {
+            ArrayList<ArrayList<String>> bins = new ArrayList<>();
+            for (int i = 0; i < binCount; i++) {
+                bins.add(new ArrayList<>());
+            }
+            for (int item = 0; item < assignment.length; item++) {
+                bins.get(assignment[item]).add(instance.label(item));
+            }
+            return bins;
+        }
+
+        public Chromosome copy() {
+            return new Chromosome(assignment.clone(), loads.clone(), binCount, fitness);
+        }
+    }
+
+    // One independent population of the island model, evolved with its own random stream
+    static class Island implements Callable<Void> {
+        ArrayList<Chromosome> population;
+        final Random random;
+        final BinPackingInstance instance;
+        final Objective objective;
+        final int populationSize;
+        final double mutationRate;
+        final SolverMetrics metrics; // may be null
+        final Incumbent incumbent;   // may be null
+        LocalSearch localSearch;     // may be null
+        int generationsPerEpoch;
+
+        public Island(ArrayList<Chromosome> population, Random random, BinPackingInstance instance,
+                      Objective objective, double mutationRate, SolverMetrics metrics, Incumbent incumbent) {
+            this.population = population;
+            this.random = random;
+            this.instance = instance;
+            this.objective = objective;
+            this.populationSize = population.size();
+            this.mutationRate = mutationRate;
+            this.metrics = metrics;
+            this.incumbent = incumbent;
+        }
+
+        @Override
+        public Void call() {
+            for (int generation = 0; generation < generationsPerEpoch; generation++) {
+                if (incumbent != null && incumbent.shouldStop()) {
+                    break;
+                }
+                long start = metrics == null ? 0 : System.nanoTime();
+                evolveGeneration(population, instance, objective, populationSize, mutationRate, localSearch, random,
+                        incumbent);
+                if (metrics != null) {
+                    metrics.generation(start, getBestFitness(population), getMeanFitness(population), populationSize);
+                }
+            }
+            return null;
+        }
+    }
+
+    /*
+     * Arguments (all optional): islands threads seed migrationInterval migrants topology(ring|random).
+     * Without arguments a single population is evolved, as before. The objective is chosen with the
+     * binpacking.objective system property, see Objective.fromSystemProperties, and the moves of the local search
+     * run on each offspring with binpacking.localsearch (none by default, see LocalSearch).
+     * Progress is reported in the background, see ProgressReporter for its system properties; snapshots and
+     * resuming are configured the same way, see Checkpoint.
+     */
+    public static void main(String[] args) {
+        try {
+            BinPackingInstance instance = InstanceLoader.load("input.txt");
+            // Items are kept sorted in decreasing order so that item i is the i-th largest item
+            instance = instance.permute(ConstructionHeuristics.decreasingOrder(instance));
+            SolverConfig config = new SolverConfig();
+            config.objective = Objective.fromSystemProperties(instance);
+            config.localSearchMoves = LocalSearch.movesFromSystemProperties();
+            if (args.length > 0) {
+                config.islands = Integer.parseInt(args[0]);
+                config.threads = args.length > 1 ? Integer.parseInt(args[1]) : config.threads;
+                long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+                config.migrationInterval = args.length > 3 ? Integer.parseInt(args[3]) : config.migrationInterval;
+                config.migrants = args.length > 4 ? Integer.parseInt(args[4]) : config.migrants;
+                config.ringTopology = args.length <= 5 || !args[5].equals("random");
+                long start = System.nanoTime();
+                Chromosome best;
+                try (ProgressReporter reporter = ProgressReporter.fromSystemProperties(NAME);
+                         Checkpoint checkpoint = Checkpoint.fromSystemProperties()) {
+                    config.metrics = reporter.metrics();
+                    config.checkpoint = checkpoint;
+                    best = runIslands(instance, config, seed, null);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                printResult(best.binCount, best.toBins(instance));
+                printCost(config.objective, best.fitness);
+                System.out.println("Throughput: " + (long) (config.generations * (double) config.islands / seconds)
+                        + " island-generations/s on " + config.threads + " threads");
+                return;
+            }
+            Packing best;
+            try (ProgressReporter reporter = ProgressReporter.fromSystemProperties(NAME);
+                     Checkpoint checkpoint = Checkpoint.fromSystemProperties()) {
+                config.metrics = reporter.metrics();
+                config.checkpoint = checkpoint;
+                best = new Preprocessing(new BinPackingGeneticAlgorithm())
+                        .solve(instance, config, 42, Incumbent.NO_DEADLINE);
+            }
+            printResult(best.binCount, best.toBins(instance));
+            printCost(config.objective, best.fitness);
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            e.printStackTrace();}}
+
+    public static void printResult(int binCount, ArrayList<ArrayList<String>> bins) {
+        System.out.println("Final Result:");
+        System.out.println("Number of bins used: " + binCount);
+        System.out.println("Items in each bin:");
+        for (int i = 0; i < bins.size(); i++) {
+            System.out.println("Bin " + (i + 1) + ": " + bins.get(i));
+        }
+    }
+
+    // The cost of a placement objective (the bin count says it all for the default one)
+    static void printCost(Objective objective, int cost) {
+        if (objective != Objective.BIN_COUNT) {
+            System.out.println("Objective cost: " + cost);
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    // Runs on the items sorted in decreasing order and maps the result back to the numbering of the instance
+    @Override
+    public Packing solve(BinPackingInstance instance, SolverConfig config, long seed, Incumbent incumbent) {
+        int[] order = ConstructionHeuristics.decreasingOrder(instance);
+        BinPackingInstance sorted = instance.permute(order);
+        Objective objective = config.objective.renumbered(order);
+        Incumbent view = incumbent.renumbered(order);
+        Chromosome best;
+        if (config.islands > 1) {
+            try {
+                best = runIslands(sorted, config, objective, seed, view);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return incumbent.best();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("GA island failed", e.getCause());
+            }
+        } else {
+            best = solve(sorted, config, objective, new RestorableRandom(seed), view);
+        }
+        int[] assignment = new int[instance.items];
+        for (int item = 0; item < sorted.items; item++) {
+            assignment[order[item]] = best.assignment[item];
+        }
+        return new Packing(assignment, best.binCount, best.fitness, NAME);
+    }
+
+    /*
+     * Single-population run; items must be sorted in decreasing order. config.metrics and incumbent may be null;
+     * with an incumbent the run stops when it says so, and shares its best chromosome every generation.
+     * With config.checkpoint the run saves its state when due and at the end (random must then be a
+     * RestorableRandom), or continues from the snapshot it was given to resume from.
+     */
+    public static Chromosome solve(BinPackingInstance instance, SolverConfig config, Random random,
+                                   Incumbent incumbent) {
+        return solve(instance, config, config.objective, random, incumbent);
+    }
+
+    // Same, minimizing the given objective of the instance instead of config.objective
+    public static Chromosome solve(BinPackingInstance instance, SolverConfig config, Objective objective,
+                                   Random random, Incumbent incumbent) {
+        int populationSize = config.populationSize;
+        SolverMetrics metrics = config.metrics;
+        Checkpoint checkpoint = config.checkpoint;
+        Snapshot.Reader snapshot = checkpoint == null ? null : checkpoint.resume(NAME, instance);
+        LocalSearch localSearch = LocalSearch.of(instance, objective, config);
+        ArrayList<Chromosome> population;
+        int generation = 1;
+        if (snapshot != null) {
+            generation = snapshot.getInt();
+            expect(snapshot.getInt(), 1, "populations");
+            random = snapshot.getRandom();
+            population = readPopulation(snapshot, instance, populationSize);
+            expect(snapshot.getInt(), 0, "migration streams");
+            snapshot.restoreIncumbent(incumbent);
+        } else {
+            population = initializePopulation(instance, objective, populationSize, random, incumbent);
+            if (incumbent != null) {
+                seedFromIncumbent(population, instance, incumbent);
+                shareIncumbent(population, instance, incumbent);
+            }
+        }
+        for (; generation <= config.generations; generation++) {
+            if (incumbent != null && incumbent.shouldStop()) {
+                break;
+            }
+            long start = metrics == null ? 0 : System.nanoTime();
+            evolveGeneration(population, instance, objective, populationSize, config.mutationRate, localSearch,
+                    random, incumbent);
+            if (incumbent != null) {
+                shareIncumbent(population, instance, incumbent);
+            }
+            if (metrics != null) {
+                metrics.generation(start, getBestFitness(population), getMeanFitness(population), populationSize);
+            }
+            if (checkpoint != null && checkpoint.due()) {
+                checkpoint.save(snapshot(instance, generation + 1, List.of(population), List.of(random), null,
+                        incumbent));
+            }
+        }
+        if (checkpoint != null) {
+            checkpoint.save(snapshot(instance, generation, List.of(population), List.of(random), null, incumbent));
+        }
+        return getBestChromosome(population);
+    }
+
+    /*
+     * State of a run before the given generation, for Checkpoint: each population (one, or one per island) with
+     * its random stream, the migration stream of the island model (null for a single population) and the
+     * incumbent. Loads are not saved, they follow from the assignments.
+     */
+    static Snapshot.Writer snapshot(BinPackingInstance instance, int generation,
+                                    List<ArrayList<Chromosome>> populations, List<Random> randoms,
+                                    Random migrationRandom, Incumbent incumbent) {
+        Snapshot.Writer snapshot = new Snapshot.Writer(NAME, instance);
+        snapshot.putInt(generation);
+        snapshot.putInt(populations.size());
+        for (int i = 0; i < populations.size(); i++) {
+            snapshot.putRandom(randoms.get(i));
+            snapshot.putInt(populations.get(i).size());
+            for (Chromosome chromosome : populations.get(i)) {
+                snapshot.putInts(chromosome.assignment, chromosome.assignment.length);
+                snapshot.putInt(chromosome.binCount);
+                snapshot.putInt(chromosome.fitness);
+            }
+        }
+        snapshot.putInt(migrationRandom == null ? 0 : 1);
+        if (migrationRandom != null) {
+            snapshot.putRandom(migrationRandom);
+        }
+        snapshot.putIncumbent(incumbent);
+        return snapshot;
+    }
+
+    static ArrayList<Chromosome> readPopulation(Snapshot.Reader snapshot, BinPackingInstance instance,
+                                                int populationSize) {
+        int size = snapshot.getInt();
+        if (size != populationSize) {
+            throw new IllegalStateException("snapshot of a population of " + size + ", not " + populationSize);
+        }
+        ArrayList<Chromosome> population = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int[] assignment = snapshot.getInts();
+            int[] loads = instance.newLoads();
+            for (int item = 0; item < assignment.length; item++) {
+                instance.add(loads, assignment[item], item);
+            }
+            int binCount = snapshot.getInt();
+            population.add(new Chromosome(assignment, loads, binCount, snapshot.getInt()));
+        }
+        return population;
+    }
+
+    // A snapshot is only resumed with the configuration it was taken with
+    private static void expect(int found, int expected, String what) {
+        if (found != expected) {
+            throw new IllegalStateException("snapshot with " + found + " " + what + ", not " + expected);
+        }
+    }
+
+    // Offers the best chromosome to the incumbent, or takes the incumbent in place of the worst chromosome
+    // when another solver has done better
+    static void shareIncumbent(ArrayList<Chromosome> population, BinPackingInstance instance, Incumbent incumbent) {
+        Chromosome best = getBestChromosome(population);
+        if (incumbent.accepts(best.binCount, best.fitness)) {
+            incumbent.offer(best.assignment, best.binCount, best.fitness, NAME);
+            return;
+        }
+        Packing shared = incumbent.best();
+        if (shared != null && incumbent.objective.isBetter(shared.binCount, shared.fitness, best.binCount,
+                best.fitness)) {
+            importPacking(population, instance, incumbent, shared);
+        }
+    }
+
+    // Warm start: a packing already in the incumbent when the run starts replaces the worst initial chromosome,
+    // better or not, so that the search starts from it
+    static void seedFromIncumbent(ArrayList<Chromosome> population, BinPackingInstance instance,
+                                  Incumbent incumbent) {
+        Packing shared = incumbent.best();
+        if (shared != null) {
+            importPacking(population, instance, incumbent, shared);
+        }
+    }
+
+    // Puts a packing of the incumbent in place of the worst chromosome
+    private static void importPacking(ArrayList<Chromosome> population, BinPackingInstance instance,
+                                      Incumbent incumbent, Packing shared) {
+        int[] assignment = incumbent.assignmentOf(shared);
+        int[] loads = instance.newLoads();
+        for (int item = 0; item < assignment.length; item++) {
+            instance.add(loads, assignment[item], item);
+        }
+        int worst = 0;
+        for (int i = 1; i < population.size(); i++) {
+            if (population.get(i).fitness > population.get(worst).fitness) {
+                worst = i;
+            }
+        }
+        population.set(worst, new Chromosome(assignment, loads, shared.binCount, shared.fitness));
+    }
+
+    public static void evolveGeneration(ArrayList<Chromosome> population, BinPackingInstance instance,
+                                        Objective objective, int populationSize, double mutationRate,
+                                        Random random) {
+        evolveGeneration(population, instance, objective, populationSize, mutationRate, null, random);
+    }
+
+    // Same, with the local search (may be null) run on every offspring before replacement: a memetic GA
+    public static void evolveGeneration(ArrayList<Chromosome> population, BinPackingInstance instance,
+                                        Objective objective, int populationSize, double mutationRate,
+                                        LocalSearch localSearch, Random random) {
+        evolveGeneration(population, instance, objective, populationSize, mutationRate, localSearch, random, null);
+    }
+
+    /*
+     * Same, checking the incumbent (may be null) before each offspring is bred or improved: one generation of a
+     * large instance can take longer than the whole budget. A generation cut short leaves the population as it
+     * was.
+     */
+    public static void evolveGeneration(ArrayList<Chromosome> population, BinPackingInstance instance,
+                                        Objective objective, int populationSize, double mutationRate,
+                                        LocalSearch localSearch, Random random, Incumbent incumbent) {
+        ArrayList<Chromosome> selectedParents = selectParents(population, random);
+        ArrayList<Chromosome> offspring = crossover(selectedParents, populationSize, instance, objective, random,
+                incumbent);
+        if (offspring.size() < populationSize) {
+            return;
+        }
+        mutate(offspring, mutationRate, instance, objective, random);
+        if (localSearch != null && !improve(offspring, localSearch, random, incumbent)) {
+            return;
+        }
+        replaceWorst(population, offspring);
+    }
+
+    public static void improve(ArrayList<Chromosome> offspring, LocalSearch localSearch, Random random) {
+        improve(offspring, localSearch, random, null);
+    }
+
+    // Same, stopping when the incumbent (may be null) says so; returns false if it did
+    static boolean improve(ArrayList<Chromosome> offspring, LocalSearch localSearch, Random random,
+                           Incumbent incumbent) {
+        for (Chromosome chromosome : offspring) {
+            if (incumbent != null && incumbent.shouldStop()) {
+                return false;
+            }
+            chromosome.binCount = localSearch.improve(chromosome.assignment, chromosome.loads, chromosome.binCount,
+                    chromosome.fitness, random);
+            chromosome.fitness = localSearch.cost;
+        }
+        return true;
+    }
+
+    /*
+     * Island model: each island evolves on its own thread for migrationInterval generations, then the
+     * migrants best chromosomes of every island replace the worst ones of its neighbour (next island on a
+     * ring, or a random island drawn from the seed). Each island has its own Random derived from the seed and
+     * migration runs on the calling thread, so the result only depends on the seed, not on the thread count.
+     * Migration follows every epoch, the last one included: a run of k generations ends in the state of a longer
+     * run after k generations, and its final snapshot can be resumed with a larger config.generations.
+     * The incumbent (may be null) is checked every offspring and shared between epochs; config.checkpoint
+     * (may be null) saves the state between epochs, as solve does.
+     */
+    public static Chromosome runIslands(BinPackingInstance instance, SolverConfig config, long seed,
+                                        Incumbent incumbent)
+            throws InterruptedException, ExecutionException {
+        return runIslands(instance, config, config.objective, seed, incumbent);
+    }
+
+    public static Chromosome runIslands(BinPackingInstance instance, SolverConfig config, Objective objective,
+                                        long seed, Incumbent incumbent)
+            throws InterruptedException, ExecutionException {
+        int islandCount = config.islands;
+        int maxGenerations = config.generations;
+        int migrationInterval = config.migrationInterval;
+        Checkpoint checkpoint = config.checkpoint;
+        Snapshot.Reader snapshot = checkpoint == null ? null : checkpoint.resume(NAME, instance);
+        ArrayList<Island> islands = new ArrayList<>();
+        Random migrationRandom;
+        int generation = 0;
+        if (snapshot != null) {
+            generation = snapshot.getInt();
+            expect(snapshot.getInt(), islandCount, "populations");
+            for (int i = 0; i < islandCount; i++) {
+                Random random = snapshot.getRandom();
+                islands.add(new Island(readPopulation(snapshot, instance, config.populationSize), random, instance,
+                        objective, config.mutationRate, config.metrics, incumbent));
+            }
+            expect(snapshot.getInt(), 1, "migration streams");
+            migrationRandom = snapshot.getRandom();
+            snapshot.restoreIncumbent(incumbent);
+        } else {
+            for (int i = 0; i < islandCount; i++) {
+                Random random = new RestorableRandom(seed + i * 0x9E3779B97F4A7C15L);
+                islands.add(new Island(initializePopulation(instance, objective, config.populationSize, random,
+                        incumbent), random, instance, objective, config.mutationRate, config.metrics, incumbent));
+                if (incumbent != null) {
+                    seedFromIncumbent(islands.get(i).population, instance, incumbent);
+                }
+            }
+            migrationRandom = new RestorableRandom(seed);
+        }
+        for (Island island : islands) {
+            island.localSearch = LocalSearch.of(instance, objective, config);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(config.threads);
+        try {
+            for (; generation < maxGenerations; generation += migrationInterval) {
+                if (incumbent != null && incumbent.shouldStop()) {
+                    break;
+                }
+                int epoch = Math.min(migrationInterval, maxGenerations - generation);
+                for (Island island : islands) {
+                    island.generationsPerEpoch = epoch;
+                }
+                for (Future<Void> future : executor.invokeAll(islands)) {
+                    future.get();
+                }
+                if (islandCount > 1) {
+                    migrate(islands, config.migrants, config.ringTopology, migrationRandom);
+                }
+                if (incumbent != null) {
+                    for (Island island : islands) {
+                        shareIncumbent(island.population, instance, incumbent);
+                    }
+                }
+                if (checkpoint != null && checkpoint.due()) {
+                    checkpoint.save(snapshot(islands, instance, generation + epoch, migrationRandom, incumbent));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if (checkpoint != null) {
+            checkpoint.save(snapshot(islands, instance, Math.min(generation, maxGenerations), migrationRandom,
+                    incumbent));
+        }
+        return getBestChromosome(bestOfIslands(islands));
+    }
+
+    private static Snapshot.Writer snapshot(List<Island> islands, BinPackingInstance instance, int generation,
+                                            Random migrationRandom, Incumbent incumbent) {
+        List<ArrayList<Chromosome>> populations = new ArrayList<>();
+        List<Random> randoms = new ArrayList<>();
+        for (Island island : islands) {
+            populations.add(island.population);
+            randoms.add(island.random);
+        }
+        return snapshot(instance, generation, populations, randoms, migrationRandom, incumbent);
+    }
+
+    static ArrayList<Chromosome> bestOfIslands(List<Island> islands) {
+        ArrayList<Chromosome> best = new ArrayList<>();
+        for (Island island : islands) {
+            best.add(getBestChromosome(island.population));
+        }
+        return best;
+    }
+
+    /*
+     * Every island receives copies of the best chromosomes of one other island in place of its worst ones: from
+     * the previous island on the ring, or from one of the other islands drawn at random.
+     */
+    static void migrate(List<Island> islands, int migrants, boolean ringTopology, Random random) {
+        if (islands.size() < 2) {
+            return;
+        }
+        ArrayList<ArrayList<Chromosome>> emigrants = new ArrayList<>();
+        for (Island island : islands) {
+            island.population.sort((c1, c2) -> c1.fitness - c2.fitness);
+            ArrayList<Chromosome> best = new ArrayList<>();
+            for (int i = 0; i < migrants && i < island.population.size(); i++) {
+                best.add(island.population.get(i).copy());
+            }
+            emigrants.add(best);
+        }
+        for (int i = 0; i < islands.size(); i++) {
+            int source;
+            if (ringTopology) {
+                source = (i + islands.size() - 1) % islands.size();
+            } else {
+                source = random.nextInt(islands.size() - 1);
+                if (source >= i) {
+                    source++; // never the island itself
+                }
+            }
+            ArrayList<Chromosome> population = islands.get(i).population;
+            ArrayList<Chromosome> incoming = emigrants.get(source);
+            for (int j = 0; j < incoming.size(); j++) {
+                population.set(population.size() - 1 - j, incoming.get(j));
+            }
+        }
+    }
+
+    /*
+     * The first chromosome is the plain first-fit-decreasing packing; the others use first-fit or best-fit on
+     * a perturbed decreasing order, so the initial population is diverse but still made of good packings.
+     */
+    public static ArrayList<Chromosome> initializePopulation(BinPackingInstance instance, Objective objective,
+                                                             int populationSize, Random random) {
+        return initializePopulation(instance, objective, populationSize, random, null);
+    }
+
+    /*
+     * Same, checking the incumbent (may be null) before each packing after the first: building the population
+     * of a large instance can take longer than the whole budget. Once it says stop, the remaining chromosomes
+     * are copies of the first one, so the population keeps its size.
+     */
+    static ArrayList<Chromosome> initializePopulation(BinPackingInstance instance, Objective objective,
+                                                     int populationSize, Random random, Incumbent incumbent) {
+        ArrayList<Chromosome> population = new ArrayList<>();
+        for (int i = 0; i < populationSize; i++) {
+            if (i > 0 && incumbent != null && incumbent.shouldStop()) {
+                population.add(population.get(0).copy());
+                continue;
+            }
+            int[] order = i == 0
+                    ? ConstructionHeuristics.decreasingOrder(instance)
+                    : ConstructionHeuristics.decreasingOrder(instance, INITIAL_ORDER_NOISE, random);
+            ConstructionHeuristics.Rule rule = i % 2 == 0
+                    ? ConstructionHeuristics.Rule.FIRST_FIT
+                    : ConstructionHeuristics.Rule.BEST_FIT;
+            int[] assignment = new int[instance.items];
+            int[] loads = instance.newLoads();
+            int binCount = ConstructionHeuristics.pack(instance, order, rule, assignment, loads);
+            objective.align(instance, assignment, loads, binCount);
+            population.add(new Chromosome(assignment, loads, binCount,
+                    objective.score(instance, loads, binCount, assignment)));
+        }
+        return population;
+    }
+
+    public static ArrayList<Chromosome> selectParents(ArrayList<Chromosome> population, Random random) {
+        ArrayList<Chromosome> selectedParents = new ArrayList<>();
+        int tournamentSize = 5;
+        for (int i = 0; i < population.size(); i++) {
+            ArrayList<Chromosome> tournament = new ArrayList<>();
+            for (int j = 0; j < tournamentSize; j++) {
+                tournament.add(population.get(random.nextInt(population.size())));
+            }
+            selectedParents.add(getBestChromosome(tournament));
+        }
+        return selectedParents;
+    }
+
+    public static Chromosome getBestChromosome(ArrayList<Chromosome> chromosomes) {
+        Chromosome best = chromosomes.get(0);
+        for (Chromosome chromosome : chromosomes) {
+            if (chromosome.fitness < best.fitness) {
+                best = chromosome;
+            }
+        }
+        return best;
+    }
+
+    // Grouping crossover (see GroupingCrossover): children inherit whole bins of both parents
+    public static ArrayList<Chromosome> crossover(ArrayList<Chromosome> parents, int populationSize,
+                                                  BinPackingInstance instance, Objective objective,
+                                                  Random random) {
+        return crossover(parents, populationSize, instance, objective, random, null);
+    }
+
+    // Same, stopping early (with fewer offspring) when the incumbent (may be null) says so
+    static ArrayList<Chromosome> crossover(ArrayList<Chromosome> parents, int populationSize,
+                                           BinPackingInstance instance, Objective objective, Random random,
+                                           Incumbent incumbent) {
+        ArrayList<Chromosome> offspring = new ArrayList<>();
+        GroupingCrossover grouping = new GroupingCrossover(instance, objective);
+        for (int i = 0; i < populationSize; i++) {
+            if (incumbent != null && incumbent.shouldStop()) {
+                break;
+            }
+            Chromosome parent1 = parents.get(random.nextInt(parents.size()));
+            Chromosome parent2 = parents.get(random.nextInt(parents.size()));
+            offspring.add(grouping.cross(parent1, parent2, random));
+        }
+        return offspring;
+    }
+
+    // Swaps two items of different bins when both bins stay within capacity; loads and fitness are updated in
+    // place, from the costs of the two bins (and of the two items) before and after the swap
+    public static void mutate(ArrayList<Chromosome> offspring, double mutationRate, BinPackingInstance instance,
+                              Objective objective, Random random) {
+        boolean itemCosts = objective.hasItemCosts();
+        for (Chromosome chromosome : offspring) {
+            if (random.nextDouble() < mutationRate) {
+                int item1 = random.nextInt(instance.items);
+                int item2 = random.nextInt(instance.items);
+                int bin1 = chromosome.assignment[item1];
+                int bin2 = chromosome.assignment[item2];
+                if (bin1 != bin2 && instance.swapFits(chromosome.loads, bin1, item1, bin2, item2)) {
+                    int[] loads = chromosome.loads;
+                    int before = objective.binCost(instance, loads, bin1) + objective.binCost(instance, loads, bin2);
+                    if (itemCosts) {
+                        before += objective.itemCost(item1, bin1) + objective.itemCost(item2, bin2);
+                    }
+                    instance.remove(loads, bin1, item1);
+                    instance.add(loads, bin1, item2);
+                    instance.remove(loads, bin2, item2);
+                    instance.add(loads, bin2, item1);
+                    chromosome.assignment[item1] = bin2;
+                    chromosome.assignment[item2] = bin1;
+                    int after = objective.binCost(instance, loads, bin1) + objective.binCost(instance, loads, bin2);
+                    if (itemCosts) {
+                        after += objective.itemCost(item1, bin2) + objective.itemCost(item2, bin1);
+                    }
+                    chromosome.fitness += after - before;
+                }
+            }
+        }
+    }
+
+    // Full re-scan of every chromosome; the GA itself never needs it, crossover and mutate keep fitness up to date
+    public static void evaluateFitness(ArrayList<Chromosome> population, BinPackingInstance instance,
+                                       Objective objective) {
+        for (Chromosome chromosome : population) {
+            chromosome.fitness = objective.score(instance, chromosome.loads, chromosome.binCount,
+                    chromosome.assignment);
+        }
+    }
+
+    public static void replaceWorst(ArrayList<Chromosome> population, ArrayList<Chromosome> offspring) {
+        population.sort((c1, c2) -> c2.fitness - c1.fitness); 
+        for (int i = 0; i < offspring.size(); i++) {
+            population.set(population.size() - 1 - i, offspring.get(i)); 
+        }
+    }
+
+    public static int getBestFitness(ArrayList<Chromosome> population) {
+        return getBestChromosome(population).fitness;
+    }
+
+    public static double getMeanFitness(ArrayList<Chromosome> population) {
+        long sum = 0;
+        for (Chromosome chromosome : population) {
+            sum += chromosome.fitness;
+        }
+        return (double) sum / population.size();
+    }
+}
@@ -0,0 +1,164 @@
+package binpacking;
+
+/*
+ * A vector bin packing instance: every item has a demand in each dimension (e.g. CPU, RAM, network) and
+ * every bin the same capacity per dimension. Demands are stored as structure of arrays, demands[d][item];
+ * classic one-dimensional instances have a single dimension whose demands are the weights.
+ *
+ * Solutions keep their bin loads in one flat array with the same layout, loads[d * items + bin] (a bin
+ * count never exceeds the item count), so with one dimension loads[bin] is simply the weight in the bin.
+ */
+public class BinPackingInstance {
+    final int items;
+    final int dimensions;
+    final int[][] demands;
+    final int[] capacities;
+    final int[] weights;  // demands[0]
+    final int capacity;   // capacities[0]
+    final int[] smallestDemands; // per dimension, the smallest demand of an item (Integer.MAX_VALUE without items)
+
+    static final FeasibilityKernel KERNEL = FeasibilityKernel.load();
+
+    public BinPackingInstance(int[] weights, int capacity) {
+        this(new int[][] {weights}, new int[] {capacity});
+    }
+
+    public BinPackingInstance(int[][] demands, int[] capacities) {
+        this.items = demands[0].length;
+        this.dimensions = capacities.length;
+        this.demands = demands;
+        this.capacities = capacities;
+        this.weights = demands[0];
+        this.capacity = capacities[0];
+        this.smallestDemands = new int[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            smallestDemands[d] = Integer.MAX_VALUE;
+            for (int demand : demands[d]) {
+                smallestDemands[d] = Math.min(smallestDemands[d], demand);
+            }
+        }
+    }
+
+    int[] newLoads() {
+        return new int[dimensions * items];
+    }
+
+    // Has the bin too little room left in some dimension for any item?
+    boolean isClosed(int[] loads, int bin) {
+        for (int d = 0, offset = bin; d < dimensions; d++, offset += items) {
+            if (capacities[d] - loads[offset] < smallestDemands[d]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean fits(int[] loads, int bin, int item) {
+        if (dimensions == 1) {
+            return loads[bin] + weights[item] <= capacity;
+        }
+        for (int d = 0, offset = bin; d < dimensions; d++, offset += items) {
+            if (loads[offset] + demands[d][item] > capacities[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void add(int[] loads, int bin, int item) {
+        for (int d = 0, offset = bin; d < dimensions; d++, offset += items) {
+            loads[offset] += demands[d][item];
+        }
+    }
+
+    void remove(int[] loads, int bin, int item) {
+        for (int d = 0, offset = bin; d < dimensions; d++, offset += items) {
+            loads[offset] -= demands[d][item];
+        }
+    }
+
+    // Copies the loads of bin from into bin to (used when renumbering bins)
+    void moveLoads(int[] loads, int from, int to) {
+        for (int d = 0; d < dimensions; d++) {
+            loads[d * items + to] = loads[d * items + from];
+        }
+    }
+
+    void clearLoads(int[] loads, int bin) {
+        for (int d = 0, offset = bin; d < dimensions; d++, offset += items) {
+            loads[offset] = 0;
+        }
+    }
+
+    // Would the swap of item1 (in bin1) and item2 (in bin2) keep both bins within capacity?
+    boolean swapFits(int[] loads, int bin1, int item1, int bin2, int item2) {
+        for (int d = 0; d < dimensions; d++) {
+            int delta = demands[d][item2] - demands[d][item1];
+            if (loads[d * items + bin1] + delta > capacities[d] || loads[d * items + bin2] - delta > capacities[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Mean fill ratio of the bin over the dimensions, optionally with one more item in it (item < 0: none)
+    double fill(int[] loads, int bin, int item) {
+        double fill = 0;
+        for (int d = 0; d < dimensions; d++) {
+            int load = loads[d * items + bin] + (item < 0 ? 0 : demands[d][item]);
+            fill += (double) load / capacities[d];
+        }
+        return fill / dimensions;
+    }
+
+    // Key used to order items by decreasing size: the weight in one dimension, the normalized demand sum otherwise
+    float size(int item) {
+        if (dimensions == 1) {
+            return weights[item];
+        }
+        float size = 0;
+        for (int d = 0; d < dimensions; d++) {
+            size += (float) demands[d][item] / capacities[d];
+        }
+        return size;
+    }
+
+    // mask[bin] = item fits in bin, for bins [0, binCount)
+    void fitMask(int[] loads, int binCount, int item, boolean[] mask) {
+        fitMask(loads, 0, binCount, item, mask);
+    }
+
+    // mask[bin] = item fits in bin, for bins [from, to)
+    void fitMask(int[] loads, int from, int to, int item, boolean[] mask) {
+        KERNEL.fitMask(loads, items, from, to, demands, capacities, item, mask);
+    }
+
+    // First bin in [from, to) where the item fits, or -1
+    int firstFit(int[] loads, int from, int to, int item) {
+        return KERNEL.firstFit(loads, items, from, to, demands, capacities, item);
+    }
+
+    // The instance with its items renumbered: item i of the result is item order[i] of this instance. order may
+    // also hold only some of the items, the result is then the instance made of those items
+    BinPackingInstance permute(int[] order) {
+        int[][] permuted = new int[dimensions][order.length];
+        for (int d = 0; d < dimensions; d++) {
+            for (int i = 0; i < order.length; i++) {
+                permuted[d][i] = demands[d][order[i]];
+            }
+        }
+        return new BinPackingInstance(permuted, capacities.clone());
+    }
+
+    // How an item is printed: its weight, or its demand vector
+    String label(int item) {
+        if (dimensions == 1) {
+            return Integer.toString(weights[item]);
+        }
+        StringBuilder label = new StringBuilder("(");
+        for (int d = 0; d < dimensions; d++) {
+            label.append(d == 0 ? "" : ", ").append(demands[d][item]);
+        }
+        return label.append(')').toString();
+    }
+}
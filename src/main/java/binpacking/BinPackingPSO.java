@@ -0,0 +1,596 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * PSO discrète: la position d'une particule est un ordre des objets (permutation) décodé en bacs par first-fit,
+ * sa vitesse une suite de transpositions de cet ordre.
+ *     v <- w.v (+) c1.r1.(pBest - x) (+) c2.r2.(gBest - x)        x <- x (+) v
+ * où p - x est la suite de transpositions qui aligne x sur p position par position, c.v n'en gardant qu'une
+ * fraction c (au plus 1). Une transposition s'applique en O(1) grâce à l'index des positions des objets.
+ *
+ * Après décodage l'ordre est réécrit bac par bac: le first-fit de cet ordre redonne exactement les mêmes bacs,
+ * donc aligner une partie de l'ordre sur celui d'un meilleur revient à en recopier des bacs entiers.
+ * Positions, meilleures personnelles et meilleure globale sont des tableaux distincts réutilisés d'une
+ * itération à l'autre: la boucle principale n'alloue rien.
+ *
+ * Ces tableaux ne font que grandir et servent à toute instance qui y tient (seuls ses items premiers objets
+ * comptent): un BinPackingPSO garde ceux de ses exécutions terminées (Scratch) et les reprend pour les
+ * suivantes, si bien que résoudre une suite d'instances, même depuis plusieurs threads, n'alloue presque rien.
+ */
+public class BinPackingPSO implements BinPackingSolver {
+
+    static final String NAME = "PSO";
+    static final double INITIAL_ORDER_NOISE = 0.1;
+
+    static class Position {
+        int[] order;//ordre des objets, regroupé bac par bac après décodage
+        int[] assignment;//bac de chaque objet
+        int[] loads;//charge de chaque bac (disposition de BinPackingInstance)
+        int items;//nombre d'objets de l'instance (les tableaux peuvent être plus longs)
+        int loadLength;//dimensions * items
+        int binCount;//nombre de bacs utilisés
+        int fitness;//coût selon l'objectif de l'exécution, voir Objective
+        long fill;//somme des carrés des charges: à fitness égale, préférer des bacs plus inégalement remplis
+
+        Position(BinPackingInstance instance) {
+            this.order = new int[instance.items];
+            this.assignment = new int[instance.items];
+            this.loads = instance.newLoads();
+            this.items = instance.items;
+            this.loadLength = loads.length;
+        }
+
+        // Adapte la position à une autre instance, en n'agrandissant les tableaux que s'il le faut
+        void reset(BinPackingInstance instance) {
+            items = instance.items;
+            loadLength = instance.dimensions * instance.items;
+            if (order.length < items) {
+                order = new int[items];
+                assignment = new int[items];
+            }
+            if (loads.length < loadLength) {
+                loads = new int[loadLength];
+            }
+        }
+
+        void copyFrom(Position other) {
+            System.arraycopy(other.order, 0, order, 0, other.items);
+            System.arraycopy(other.assignment, 0, assignment, 0, other.items);
+            System.arraycopy(other.loads, 0, loads, 0, other.loadLength);
+            items = other.items;
+            loadLength = other.loadLength;
+            binCount = other.binCount;
+            fitness = other.fitness;
+            fill = other.fill;
+        }
+
+        // Pour Checkpoint; les charges ne sont pas sauvegardées, elles se déduisent de l'affectation
+        void save(Snapshot.Writer snapshot) {
+            snapshot.putInts(order, items);
+            snapshot.putInts(assignment, items);
+            snapshot.putInt(binCount);
+            snapshot.putInt(fitness);
+            snapshot.putLong(fill);
+        }
+
+        void restore(Snapshot.Reader snapshot, BinPackingInstance instance) {
+            System.arraycopy(snapshot.getInts(), 0, order, 0, items);
+            System.arraycopy(snapshot.getInts(), 0, assignment, 0, items);
+            Arrays.fill(loads, 0, loadLength, 0);
+            for (int item = 0; item < items; item++) {
+                instance.add(loads, assignment[item], item);
+            }
+            binCount = snapshot.getInt();
+            fitness = snapshot.getInt();
+            fill = snapshot.getLong();
+        }
+
+        boolean isBetterThan(Position other) {
+            return fitness < other.fitness || (fitness == other.fitness && fill > other.fill);
+        }
+    }
+
+    static class Particle {
+        final Position position;//position courante
+        final Position personalBest;//meilleure position de la particule (copie indépendante)
+        int[] velocity;//transpositions de positions de l'ordre: (velocity[2k], velocity[2k + 1])
+        int velocityLength;//nombre de transpositions
+
+        public Particle(BinPackingInstance instance) {
+            this.position = new Position(instance);
+            this.personalBest = new Position(instance);
+            this.velocity = new int[2 * instance.items];
+        }
+
+        void reset(BinPackingInstance instance) {
+            position.reset(instance);
+            personalBest.reset(instance);
+            if (velocity.length < 2 * instance.items) {
+                velocity = new int[2 * instance.items];
+            }
+            velocityLength = 0;
+        }
+
+        void save(Snapshot.Writer snapshot) {
+            position.save(snapshot);
+            personalBest.save(snapshot);
+            snapshot.putInts(velocity, 2 * velocityLength);
+        }
+
+        void restore(Snapshot.Reader snapshot, BinPackingInstance instance) {
+            position.restore(snapshot, instance);
+            personalBest.restore(snapshot, instance);
+            int[] saved = snapshot.getInts();
+            System.arraycopy(saved, 0, velocity, 0, saved.length);
+            velocityLength = saved.length / 2;
+        }
+
+       // met à jour la meilleure solution personnelle si l'actuelle est meilleure.
+
+        public void updatePersonalBest() {
+            if (position.isBetterThan(personalBest)) {
+                personalBest.copyFrom(position);
+            }
+        }
+    }
+
+    // Tampons partagés par les particules d'un essaim: décodage et construction des vitesses
+    static class Workspace {
+        final ConstructionHeuristics.FirstFitPacker packer;
+        int[] order;//copie de travail d'un ordre
+        int[] index;//index[item] = position de l'objet dans order
+        int[] binStarts;//début de chaque bac dans l'ordre regroupé
+        int[] velocity;//vitesse en construction, échangée ensuite avec celle de la particule
+        int velocityLength;
+        int items;//nombre d'objets de l'instance, et de transpositions d'une vitesse au plus
+        Objective objective = Objective.BIN_COUNT;//ce que le décodage évalue
+
+        Workspace(BinPackingInstance instance) {
+            this.packer = new ConstructionHeuristics.FirstFitPacker(instance);
+            this.order = new int[instance.items];
+            this.index = new int[instance.items];
+            this.binStarts = new int[instance.items + 1];
+            this.velocity = new int[2 * instance.items];
+            this.items = instance.items;
+        }
+
+        void reset(BinPackingInstance instance) {
+            packer.ensureCapacity(instance);
+            items = instance.items;
+            if (order.length < items) {
+                order = new int[items];
+                index = new int[items];
+                binStarts = new int[items + 1];
+            }
+            if (velocity.length < 2 * items) {
+                velocity = new int[2 * items];
+            }
+        }
+
+        // Ajoute la transposition (i, j) à la vitesse et l'applique à order; false si la vitesse est pleine
+        boolean transpose(int i, int j) {
+            if (i == j) {
+                return true;
+            }
+            if (velocityLength == items) {
+                return false;
+            }
+            velocity[2 * velocityLength] = i;
+            velocity[2 * velocityLength + 1] = j;
+            velocityLength++;
+            int item = order[i];
+            order[i] = order[j];
+            order[j] = item;
+            index[order[i]] = i;
+            index[order[j]] = j;
+            return true;
+        }
+    }
+
+    // Tout ce qu'alloue une exécution (essaim, meilleure globale, tampons), à reprendre pour la suivante
+    static class Scratch {
+        final ArrayList<Particle> swarm = new ArrayList<>();
+        Position globalBest;
+        Workspace workspace;
+        LocalSearch localSearch; // celle de la dernière exécution qui en avait une
+
+        void reset(BinPackingInstance instance, int swarmSize) {
+            if (workspace == null) {
+                workspace = new Workspace(instance);
+                globalBest = new Position(instance);
+            } else {
+                workspace.reset(instance);
+                globalBest.reset(instance);
+            }
+            while (swarm.size() > swarmSize) {
+                swarm.remove(swarm.size() - 1);
+            }
+            for (Particle particle : swarm) {
+                particle.reset(instance);
+            }
+            while (swarm.size() < swarmSize) {
+                swarm.add(new Particle(instance));
+            }
+        }
+    }
+
+    // Tampons des exécutions terminées, repris par les suivantes (solve peut être appelé depuis plusieurs threads)
+    private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+ // La progression est rapportée en arrière-plan, voir ProgressReporter pour ses propriétés système; les
+ // instantanés et la reprise se règlent de la même façon, voir Checkpoint, ainsi que la recherche locale
+ // après chaque déplacement (binpacking.localsearch, voir LocalSearch)
+ public static void main(String[] args) {
+        try {
+            BinPackingInstance instance = InstanceLoader.load("input.txt");
+
+            SolverConfig config = new SolverConfig();
+            config.objective = Objective.fromSystemProperties(instance);//voir Objective, bins par défaut
+            config.localSearchMoves = LocalSearch.movesFromSystemProperties();//0 par défaut: pas de recherche locale
+            Packing best;
+            try (ProgressReporter reporter = ProgressReporter.fromSystemProperties(NAME);
+                     Checkpoint checkpoint = Checkpoint.fromSystemProperties()) {
+                config.metrics = reporter.metrics();
+                config.checkpoint = checkpoint;
+                // réduction et borne inférieure d'abord, voir Preprocessing
+                best = new Preprocessing(new BinPackingPSO()).solve(instance, config, 42, Incumbent.NO_DEADLINE);
+            }
+            ArrayList<ArrayList<String>> bins = best.toBins(instance);
+            System.out.println("Final Result:");
+            System.out.println("Number of bins used: " + bins.size());
+            System.out.println("Items in each bin:");
+            for (int i = 0; i < bins.size(); i++) {
+                System.out.println("Bin " + (i + 1) + ": " + bins.get(i));}
+            BinPackingGeneticAlgorithm.printCost(config.objective, best.fitness);
+        } catch (IOException e) {
+            e.printStackTrace();}
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Packing solve(BinPackingInstance instance, SolverConfig config, long seed, Incumbent incumbent) {
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        try {
+            Position best = solve(instance, config, new RestorableRandom(seed), incumbent, scratch);
+            return new Packing(Arrays.copyOf(best.assignment, best.items), best.binCount, best.fitness, NAME);
+        } finally {
+            scratchPool.offer(scratch);
+        }
+    }
+
+    // config.metrics et incumbent peuvent être null; avec un incumbent, l'essaim s'arrête quand il le demande et
+    // échange avec lui sa meilleure position à chaque itération. Avec config.checkpoint, l'état est sauvegardé
+    // quand c'est le moment et à la fin (random doit alors être un RestorableRandom), ou repris d'un instantané
+    public static Position solve(BinPackingInstance instance, SolverConfig config, Random random,
+                                 Incumbent incumbent) {
+        return solve(instance, config, random, incumbent, new Scratch());
+    }
+
+    // Même chose avec les tableaux de scratch, qui contient la position renvoyée jusqu'à sa prochaine utilisation
+    static Position solve(BinPackingInstance instance, SolverConfig config, Random random, Incumbent incumbent,
+                          Scratch scratch) {
+        SolverMetrics metrics = config.metrics;
+        double inertiaWeight = config.inertiaWeight;
+        double cognitiveWeight = config.cognitiveWeight;
+        double socialWeight = config.socialWeight;
+        scratch.reset(instance, config.swarmSize);
+        Workspace workspace = scratch.workspace;
+        workspace.objective = config.objective;
+        // null: pas de recherche locale; sinon celle de scratch, reprise pour cette instance
+        LocalSearch localSearch = LocalSearch.of(scratch.localSearch, instance, config.objective, config);
+        if (localSearch != null) {
+            scratch.localSearch = localSearch;
+        }
+        // le swarm (essaim) de particules
+        ArrayList<Particle> swarm = scratch.swarm;
+        Position globalBest = scratch.globalBest;
+        Checkpoint checkpoint = config.checkpoint;
+        Snapshot.Reader snapshot = checkpoint == null ? null : checkpoint.resume(NAME, instance);
+        int iteration = 1;
+        if (snapshot != null) {
+            iteration = snapshot.getInt();
+            random = snapshot.getRandom();
+            int size = snapshot.getInt();
+            if (size != swarm.size()) {
+                throw new IllegalStateException("snapshot of a swarm of " + size + ", not " + swarm.size());
+            }
+            for (Particle particle : swarm) {
+                particle.restore(snapshot, instance);
+            }
+            globalBest.restore(snapshot, instance);
+            snapshot.restoreIncumbent(incumbent);
+        } else {
+            initializeSwarm(swarm, instance, random, workspace, incumbent);
+            if (incumbent != null) {
+                seedFromIncumbent(swarm, instance, incumbent, workspace);
+            }
+            globalBest.copyFrom(getBestParticle(swarm).personalBest);
+            if (incumbent != null) {
+                shareIncumbent(globalBest, instance, incumbent, workspace);
+            }
+        }
+        for (; iteration <= config.iterations; iteration++) {
+            if (incumbent != null && incumbent.shouldStop()) {
+                break;
+            }
+            long start = metrics == null ? 0 : System.nanoTime();
+            for (Particle particle : swarm) {
+                // une itération sur une grande instance peut dépasser tout le budget: l'échéance est vérifiée à
+                // chaque particule, celles déjà déplacées restent valides
+                if (incumbent != null && incumbent.shouldStop()) {
+                    break;
+                }
+                //Met à jour la vitesse d'une particule.
+                updateVelocity(particle, globalBest, inertiaWeight, cognitiveWeight, socialWeight, random, workspace);
+                //Applique la vitesse à l'ordre de la particule et le décode en bacs (fitness comprise)
+                updateBins(particle, instance, workspace);
+                //Recherche locale sur la nouvelle position, si elle est activée (voir LocalSearch)
+                if (localSearch != null) {
+                    improve(particle.position, instance, localSearch, random, workspace);
+                }
+                particle.updatePersonalBest();
+            }
+            Particle best = getBestParticle(swarm);
+            if (best.personalBest.isBetterThan(globalBest)) {
+                globalBest.copyFrom(best.personalBest);
+            }
+            if (incumbent != null) {
+                shareIncumbent(globalBest, instance, incumbent, workspace);
+            }
+            //metrics peut être null: rien n'est alors mesuré
+            if (metrics != null) {
+                metrics.generation(start, globalBest.fitness, meanFitness(swarm), swarm.size());
+            }
+            if (checkpoint != null && checkpoint.due()) {
+                checkpoint.save(snapshot(instance, iteration + 1, random, swarm, globalBest, incumbent));
+            }
+        }
+        if (checkpoint != null) {
+            checkpoint.save(snapshot(instance, iteration, random, swarm, globalBest, incumbent));
+        }
+        return globalBest;
+    }
+
+    // État de l'essaim avant l'itération donnée, pour Checkpoint
+    static Snapshot.Writer snapshot(BinPackingInstance instance, int iteration, Random random,
+                                    ArrayList<Particle> swarm, Position globalBest, Incumbent incumbent) {
+        Snapshot.Writer snapshot = new Snapshot.Writer(NAME, instance);
+        snapshot.putInt(iteration);
+        snapshot.putRandom(random);
+        snapshot.putInt(swarm.size());
+        for (Particle particle : swarm) {
+            particle.save(snapshot);
+        }
+        globalBest.save(snapshot);
+        snapshot.putIncumbent(incumbent);
+        return snapshot;
+    }
+
+    // Chaque particule part d'un first-fit ou best-fit sur un ordre décroissant perturbé (la première sans
+    // perturbation)
+    public static ArrayList<Particle> initializeSwarm(BinPackingInstance instance, int swarmSize, Random random,
+                                                     Workspace workspace) {
+        ArrayList<Particle> swarm = new ArrayList<>();
+        for (int i = 0; i < swarmSize; i++) {
+            swarm.add(new Particle(instance));
+        }
+        initializeSwarm(swarm, instance, random, workspace);
+        return swarm;
+    }
+
+    // Même chose avec des particules déjà adaptées à l'instance (voir Particle.reset)
+    static void initializeSwarm(ArrayList<Particle> swarm, BinPackingInstance instance, Random random,
+                                Workspace workspace) {
+        initializeSwarm(swarm, instance, random, workspace, null);
+    }
+
+    // Même chose en consultant l'incumbent (peut être null) avant chaque particule après la première: sur une
+    // grande instance, l'initialisation peut dépasser tout le budget. Une fois l'arrêt demandé, les particules
+    // restantes partent de la position de la première
+    static void initializeSwarm(ArrayList<Particle> swarm, BinPackingInstance instance, Random random,
+                                Workspace workspace, Incumbent incumbent) {
+        for (int i = 0; i < swarm.size(); i++) {
+            if (i > 0 && incumbent != null && incumbent.shouldStop()) {
+                swarm.get(i).position.copyFrom(swarm.get(0).position);
+                swarm.get(i).personalBest.copyFrom(swarm.get(0).position);
+                continue;
+            }
+            int[] order = i == 0
+                    ? ConstructionHeuristics.decreasingOrder(instance)
+                    : ConstructionHeuristics.decreasingOrder(instance, INITIAL_ORDER_NOISE, random);
+            Particle particle = swarm.get(i);
+            Position position = particle.position;
+            System.arraycopy(order, 0, position.order, 0, order.length);
+            if (i % 2 == 1) {
+                // l'ordre regroupé par bacs du best-fit, que le décodage first-fit reprend
+                int binCount = ConstructionHeuristics.pack(instance, order, ConstructionHeuristics.Rule.BEST_FIT,
+                        position.assignment, position.loads);
+                groupByBin(position, binCount, workspace);
+            }
+            decode(position, instance, workspace);
+            particle.personalBest.copyFrom(position);
+        }
+    }
+
+    // Applique la vitesse à l'ordre (O(1) par transposition) puis décode la nouvelle position
+    public static void updateBins(Particle particle, BinPackingInstance instance, Workspace workspace) {
+        int[] order = particle.position.order;
+        int[] velocity = particle.velocity;
+        for (int k = 0; k < particle.velocityLength; k++) {
+            int i = velocity[2 * k];
+            int j = velocity[2 * k + 1];
+            int item = order[i];
+            order[i] = order[j];
+            order[j] = item;
+        }
+        decode(particle.position, instance, workspace);
+    }
+
+    // Améliore les bacs de la position sur place, puis regroupe l'ordre par bac: le décodage first-fit de la
+    // prochaine itération retrouve ces bacs, l'amélioration est transmise à la suite de la trajectoire
+    static void improve(Position position, BinPackingInstance instance, LocalSearch localSearch, Random random,
+                        Workspace workspace) {
+        int binCount = localSearch.improve(position.assignment, position.loads, position.binCount, position.fitness,
+                random);
+        groupByBin(position, binCount, workspace);
+        evaluate(position, binCount, instance, workspace.objective);
+    }
+
+    // Propose la meilleure position à l'incumbent, ou la remplace par celui-ci si un autre solveur a fait mieux
+    static void shareIncumbent(Position globalBest, BinPackingInstance instance, Incumbent incumbent,
+                               Workspace workspace) {
+        if (incumbent.accepts(globalBest.binCount, globalBest.fitness)) {
+            incumbent.offer(globalBest.assignment, globalBest.binCount, globalBest.fitness, NAME);
+            return;
+        }
+        Packing shared = incumbent.best();
+        if (shared != null && incumbent.objective.isBetter(shared.binCount, shared.fitness, globalBest.binCount,
+                globalBest.fitness)) {
+            load(globalBest, incumbent.assignmentOf(shared), shared.binCount, instance, workspace);
+        }
+    }
+
+    // Démarrage à chaud: une solution déjà dans l'incumbent au départ remplace la dernière particule (pas la
+    // première, celle du first-fit décroissant), meilleure ou non
+    static void seedFromIncumbent(ArrayList<Particle> swarm, BinPackingInstance instance, Incumbent incumbent,
+                                  Workspace workspace) {
+        Packing shared = incumbent.best();
+        if (shared != null && swarm.size() > 1) {
+            Particle particle = swarm.get(swarm.size() - 1);
+            load(particle.position, incumbent.assignmentOf(shared), shared.binCount, instance, workspace);
+            particle.personalBest.copyFrom(particle.position);
+        }
+    }
+
+    // Met une solution donnée par ses bacs dans position (ordre regroupé par bac, charges et fitness)
+    static void load(Position position, int[] assignment, int binCount, BinPackingInstance instance,
+                     Workspace workspace) {
+        System.arraycopy(assignment, 0, position.assignment, 0, assignment.length);
+        for (int item = 0; item < assignment.length; item++) {
+            position.order[item] = item;
+        }
+        groupByBin(position, binCount, workspace);
+        Arrays.fill(position.loads, 0, position.loadLength, 0);
+        for (int item = 0; item < assignment.length; item++) {
+            instance.add(position.loads, assignment[item], item);
+        }
+        evaluate(position, binCount, instance, workspace.objective);
+    }
+
+    // First-fit de l'ordre, bacs renumérotés pour l'objectif (voir Objective.align), réécriture de l'ordre bac par
+    // bac et calcul de la fitness (objectif du workspace)
+    static void decode(Position position, BinPackingInstance instance, Workspace workspace) {
+        int binCount = workspace.packer.pack(instance, position.order, position.assignment, position.loads);
+        workspace.objective.align(instance, position.assignment, position.loads, binCount);
+        groupByBin(position, binCount, workspace);
+        evaluate(position, binCount, instance, workspace.objective);
+    }
+
+    static void evaluate(Position position, int binCount, BinPackingInstance instance, Objective objective) {
+        position.binCount = binCount;
+        position.fitness = objective.score(instance, position.loads, binCount, position.assignment);
+        long fill = 0;
+        for (int d = 0; d < instance.dimensions; d++) {
+            for (int bin = 0, offset = d * instance.items; bin < binCount; bin++) {
+                long load = position.loads[offset + bin];
+                fill += load * load;
+            }
+        }
+        position.fill = fill;
+    }
+
+    // Trie l'ordre par bac (tri par dénombrement stable: l'ordre relatif dans chaque bac est conservé)
+    static void groupByBin(Position position, int binCount, Workspace workspace) {
+        int[] order = position.order;
+        int items = position.items;
+        int[] starts = workspace.binStarts;
+        Arrays.fill(starts, 0, binCount + 1, 0);
+        for (int i = 0; i < items; i++) {
+            starts[position.assignment[order[i]] + 1]++;
+        }
+        for (int bin = 0; bin < binCount; bin++) {
+            starts[bin + 1] += starts[bin];
+        }
+        for (int i = 0; i < items; i++) {
+            workspace.order[starts[position.assignment[order[i]]]++] = order[i];
+        }
+        System.arraycopy(workspace.order, 0, order, 0, items);
+    }
+
+    public static void updateVelocity(Particle particle, Position globalBest, double inertiaWeight,
+                                      double cognitiveWeight, double socialWeight, Random random,
+                                      Workspace workspace) {
+        int items = workspace.items;
+        if (items == 0) {
+            return;
+        }
+        System.arraycopy(particle.position.order, 0, workspace.order, 0, items);
+        for (int i = 0; i < items; i++) {
+            workspace.index[workspace.order[i]] = i;
+        }
+        workspace.velocityLength = 0;
+        // w.v: le début de la vitesse précédente
+        int kept = (int) Math.min(particle.velocityLength, Math.round(inertiaWeight * particle.velocityLength));
+        for (int k = 0; k < kept; k++) {
+            workspace.transpose(particle.velocity[2 * k], particle.velocity[2 * k + 1]);
+        }
+        // c1.r1.(pBest - x) puis c2.r2.(gBest - x), chacun sur une plage de positions tirée au hasard
+        appendDifference(workspace, particle.personalBest.order, random.nextInt(items),
+                span(cognitiveWeight, random, items));
+        appendDifference(workspace, globalBest.order, random.nextInt(items),
+                span(socialWeight, random, items));
+        // une transposition aléatoire, sans quoi une particule confondue avec les meilleures ne bougerait plus
+        workspace.transpose(random.nextInt(items), random.nextInt(items));
+        int[] velocity = particle.velocity;
+        particle.velocity = workspace.velocity;
+        particle.velocityLength = workspace.velocityLength;
+        workspace.velocity = velocity;
+    }
+
+    // Nombre de positions à aligner pour le terme c.r.(p - x)
+    static int span(double weight, Random random, int items) {
+        return (int) Math.round(Math.min(1.0, weight * random.nextDouble()) * items);
+    }
+
+    // Transpositions alignant l'ordre de travail sur target, sur length positions depuis start (circulairement)
+    static void appendDifference(Workspace workspace, int[] target, int start, int length) {
+        int items = workspace.items;
+        for (int k = 0, i = start; k < length; k++, i = i + 1 == items ? 0 : i + 1) {
+            int item = target[i];
+            if (workspace.order[i] != item && !workspace.transpose(i, workspace.index[item])) {
+                return;
+            }
+        }
+    }
+
+    static double meanFitness(ArrayList<Particle> swarm) {
+        long sum = 0;
+        for (Particle particle : swarm) {
+            sum += particle.position.fitness;
+        }
+        return (double) sum / swarm.size();
+    }
+
+    public static Particle getBestParticle(ArrayList<Particle> swarm) {
+        Particle best = swarm.get(0);
+        for (Particle particle : swarm) {
+            if (particle.personalBest.isBetterThan(best.personalBest)) {
+                best = particle;
+            }
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,19 @@
+package binpacking;
+
+/*
+ * Common entry point of the metaheuristics. A solve runs until the budget of the config is spent, the deadline
+ * passes or the lower bound is reached, offers every improvement to the incumbent, and returns the best packing
+ * it found itself (in the numbering of the instance). The same seed gives the same search, as long as no other
+ * solver shares the incumbent and no deadline cuts the run short.
+ */
+public interface BinPackingSolver {
+
+    String name();
+
+    Packing solve(BinPackingInstance instance, SolverConfig config, long seed, Incumbent incumbent);
+
+    // deadline is a System.nanoTime() value, or Incumbent.NO_DEADLINE
+    default Packing solve(BinPackingInstance instance, SolverConfig config, long seed, long deadline) {
+        return solve(instance, config, seed, new Incumbent(instance, deadline, config.objective));
+    }
+}
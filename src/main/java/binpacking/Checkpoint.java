@@ -0,0 +1,148 @@
+package binpacking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Periodic snapshots of a solver's state (see Snapshot) in one file, and resuming from it. The solver checks
+ * due() between two generations and, when it is, encodes its state and hands it to save(), which returns at
+ * once: a background daemon thread writes it through a FileChannel to a temporary file, forces it to disk and
+ * moves it over the checkpoint, so the file always holds a complete snapshot, even after a kill in the middle
+ * of a write. A snapshot that comes while the previous one is still waiting to be written replaces it.
+ *
+ * With resume, the snapshot in the file (if any) is read at construction, and the solver that asks for it
+ * continues from it instead of starting: the run then goes on exactly as it would have without the
+ * interruption. One snapshot covers one solver run, so a checkpoint is for runs of a single solver (not for
+ * the portfolio, whose solvers interact).
+ *
+ * The main methods configure it with system properties:
+ *   binpacking.checkpoint           checkpoint file (default none: no checkpoints)
+ *   binpacking.checkpoint.interval  minimum time between two snapshots in milliseconds (default 10000)
+ *   binpacking.checkpoint.resume    true to continue from the snapshot in the file, if there is one
+ */
+public final class Checkpoint implements AutoCloseable {
+    private final Path path;
+    private final Path temporary;
+    private final long intervalNanos;
+    private ByteBuffer resumeFrom; // snapshot read at construction, until a solver takes it
+    private long lastSave = System.nanoTime();
+    private final AtomicReference<ByteBuffer> pending = new AtomicReference<>();
+    private final ExecutorService writer;
+    private volatile IOException failure;
+    private volatile long written;
+
+    public Checkpoint(Path path, long intervalMillis, boolean resume) throws IOException {
+        this.path = path;
+        this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        this.intervalNanos = intervalMillis * 1_000_000;
+        if (resume) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // read the whole file
+                }
+                resumeFrom = bytes.flip();
+                new Snapshot.Reader(resumeFrom.duplicate()); // reject a bad file now, not in the solver
+            } catch (NoSuchFileException e) {
+                // nothing saved yet: the run starts from scratch
+            }
+        }
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // null when binpacking.checkpoint is not set
+    public static Checkpoint fromSystemProperties() throws IOException {
+        String path = System.getProperty("binpacking.checkpoint");
+        if (path == null) {
+            return null;
+        }
+        return new Checkpoint(Paths.get(path), Long.getLong("binpacking.checkpoint.interval", 10_000),
+                Boolean.getBoolean("binpacking.checkpoint.resume"));
+    }
+
+    /*
+     * The snapshot to resume from, checked against the solver and the instance, or null to start from scratch.
+     * Given once: a second solver run on this checkpoint starts from scratch.
+     */
+    Snapshot.Reader resume(String solver, BinPackingInstance instance) {
+        if (resumeFrom == null) {
+            return null;
+        }
+        try {
+            Snapshot.Reader snapshot = new Snapshot.Reader(resumeFrom);
+            snapshot.check(solver, instance);
+            return snapshot;
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // checked at construction
+        } finally {
+            resumeFrom = null;
+        }
+    }
+
+    // Is it time for a snapshot?
+    boolean due() {
+        return System.nanoTime() - lastSave >= intervalNanos;
+    }
+
+    // Queues the snapshot for writing and returns at once
+    void save(Snapshot.Writer snapshot) {
+        lastSave = System.nanoTime();
+        if (pending.getAndSet(snapshot.finish()) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    private void writePending() {
+        ByteBuffer bytes = pending.getAndSet(null);
+        if (bytes == null) {
+            return;
+        }
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            written++;
+        } catch (IOException e) {
+            failure = e; // the search goes on; close() reports it
+        }
+    }
+
+    // Snapshots written so far
+    public long written() {
+        return written;
+    }
+
+    // Waits for the snapshots still queued to be written; throws the last write failure, if any
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
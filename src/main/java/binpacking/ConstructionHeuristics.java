@@ -0,0 +1,459 @@
+package binpacking;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Greedy packings shared by the solvers: first-fit, best-fit and worst-fit, normally applied to items in
+ * decreasing order (FFD, BFD, WFD). Bin residual capacities are indexed so that every placement costs
+ * O(log bins): a max segment tree for first-fit and worst-fit, a treap ordered by residual for best-fit.
+ * With several dimensions, first-fit searches one max segment tree per dimension and only descends into
+ * subtrees where every dimension may fit; best-fit and worst-fit compare a bounded number of open bins taken
+ * from ResidualBuckets (see vectorBestOrWorstFit).
+ */
+public class ConstructionHeuristics {
+
+    public enum Rule { FIRST_FIT, BEST_FIT, WORST_FIT }
+
+    static final int CANDIDATE_BINS = 64; // open bins multi-dimensional best-fit and worst-fit compare at most
+
+    /*
+     * Item indices sorted by decreasing size (the weight in one dimension, see BinPackingInstance.size).
+     * Without a Random the order is deterministic (ties by index).
+     * With a Random, equal sizes are shuffled and every size is scaled by a factor drawn in
+     * [1 - noise, 1 + noise] before sorting, which gives a different but still mostly decreasing order.
+     */
+    public static int[] decreasingOrder(BinPackingInstance instance, double noise, Random random) {
+        long[] keys = new long[instance.items];
+        for (int i = 0; i < instance.items; i++) {
+            float key = instance.size(i);
+            if (random != null) {
+                // the tie-breaking term stays below the gap between two distinct integer weights
+                double tie = instance.dimensions == 1 ? 0.5 : 1e-3;
+                key = (float) (key * (1 + noise * (2 * random.nextDouble() - 1)) + tie * random.nextDouble());
+            }
+            // Positive floats sort like their bit patterns; the index goes in the low 32 bits
+            keys[i] = ((long) (Integer.MAX_VALUE - Float.floatToIntBits(Math.max(key, 0f))) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[instance.items];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    public static int[] decreasingOrder(BinPackingInstance instance) {
+        return decreasingOrder(instance, 0, null);
+    }
+
+    /*
+     * Packs the items in the given order with the rule. assignment[item] receives the bin index (bins are
+     * numbered in opening order) and loads (see BinPackingInstance.newLoads) the bin loads; the returned value
+     * is the number of bins used. An item that exceeds the capacity gets a bin of its own.
+     */
+    public static int pack(BinPackingInstance instance, int[] order, Rule rule, int[] assignment, int[] loads) {
+        if (instance.dimensions > 1) {
+            return rule == Rule.FIRST_FIT
+                    ? vectorFirstFit(instance, order, order.length, assignment, loads,
+                            residualTrees(instance.dimensions, order.length))
+                    : vectorBestOrWorstFit(instance, order, rule == Rule.WORST_FIT, assignment, loads);
+        }
+        int[] weights = instance.weights;
+        int capacity = instance.capacity;
+        return rule == Rule.BEST_FIT
+                ? bestFit(weights, order, capacity, assignment, loads)
+                : firstOrWorstFit(weights, order, order.length, capacity, rule == Rule.WORST_FIT, assignment, loads,
+                        new MaxSegmentTree(Math.max(order.length, 1)));
+    }
+
+    // Packs order[0 .. count)
+    static int firstOrWorstFit(int[] weights, int[] order, int count, int capacity, boolean worstFit,
+                               int[] assignment, int[] loads, MaxSegmentTree residuals) {
+        int binCount = 0;
+        for (int k = 0; k < count; k++) {
+            int item = order[k];
+            int weight = weights[item];
+            int bin = worstFit ? residuals.leftmostMax(weight) : residuals.leftmostAtLeast(weight);
+            if (bin < 0) {
+                bin = binCount++;
+                loads[bin] = 0;
+            }
+            assignment[item] = bin;
+            loads[bin] += weight;
+            residuals.set(bin, capacity - loads[bin]);
+        }
+        return binCount;
+    }
+
+    static int bestFit(int[] weights, int[] order, int capacity, int[] assignment, int[] loads) {
+        // Open bins ordered by (residual capacity, bin index), so ceiling() finds the tightest bin that fits
+        ResidualSet residuals = new ResidualSet(Math.max(order.length, 1));
+        int binCount = 0;
+        for (int item : order) {
+            int weight = weights[item];
+            int bin = weight <= capacity ? residuals.ceiling(weight) : -1;
+            if (bin < 0) {
+                bin = binCount++;
+                loads[bin] = 0;
+            } else {
+                residuals.remove(bin);
+            }
+            assignment[item] = bin;
+            loads[bin] += weight;
+            if (loads[bin] < capacity) {
+                residuals.add(bin, capacity - loads[bin]);
+            }
+        }
+        return binCount;
+    }
+
+    static MaxSegmentTree[] residualTrees(int dimensions, int bins) {
+        MaxSegmentTree[] residuals = new MaxSegmentTree[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            residuals[d] = new MaxSegmentTree(Math.max(bins, 1));
+        }
+        return residuals;
+    }
+
+    static int vectorFirstFit(BinPackingInstance instance, int[] order, int count, int[] assignment, int[] loads,
+                              MaxSegmentTree[] residuals) {
+        int binCount = 0;
+        for (int k = 0; k < count; k++) {
+            int item = order[k];
+            int bin = leftmostFit(residuals, instance, item, 1);
+            if (bin < 0) {
+                bin = binCount++;
+                instance.clearLoads(loads, bin);
+            }
+            assignment[item] = bin;
+            instance.add(loads, bin, item);
+            setResiduals(residuals, instance, loads, bin);
+        }
+        return binCount;
+    }
+
+    /*
+     * Sets the residuals of the bin in every tree, or takes it out of them once no item fits in it anymore (see
+     * BinPackingInstance.isClosed). A bin full in one dimension but not in the others would otherwise let
+     * leftmostFit descend into its subtrees: on virtual machine instances, where most bins fill up in one
+     * dimension, a placement visited thousands of nodes.
+     */
+    static void setResiduals(MaxSegmentTree[] residuals, BinPackingInstance instance, int[] loads, int bin) {
+        boolean closed = instance.isClosed(loads, bin);
+        for (int d = 0; d < instance.dimensions; d++) {
+            int residual = instance.capacities[d] - loads[d * instance.items + bin];
+            residuals[d].set(bin, closed ? Integer.MIN_VALUE : residual);
+        }
+    }
+
+    // Leftmost leaf under node where every dimension has room; subtrees where some maximum is too small are skipped
+    static int leftmostFit(MaxSegmentTree[] residuals, BinPackingInstance instance, int item, int node) {
+        for (int d = 0; d < instance.dimensions; d++) {
+            if (residuals[d].tree[node] < instance.demands[d][item]) {
+                return -1;
+            }
+        }
+        int size = residuals[0].size;
+        if (node >= size) {
+            return node - size;
+        }
+        int bin = leftmostFit(residuals, instance, item, 2 * node);
+        return bin >= 0 ? bin : leftmostFit(residuals, instance, item, 2 * node + 1);
+    }
+
+    /*
+     * Best-fit keeps the fullest bin (largest mean fill after placement), worst-fit the emptiest. While at most
+     * CANDIDATE_BINS bins may still take an item (see BinPackingInstance.isClosed), all of them are compared.
+     * Beyond that, only the first CANDIDATE_BINS where the item fits in the ResidualBuckets of the open bins:
+     * by increasing room in the first dimension from the item's demand for best-fit, by decreasing room for
+     * worst-fit, looking at 4 * CANDIDATE_BINS bins at most. If none of them fits, the residual trees of
+     * first-fit find a bin where the item fits, if there is one, so a bin is only opened when none would do.
+     * A placement then costs O(CANDIDATE_BINS + dimensions * log bins) instead of O(bins).
+     */
+    static int vectorBestOrWorstFit(BinPackingInstance instance, int[] order, boolean worstFit,
+                                    int[] assignment, int[] loads) {
+        MaxSegmentTree[] residuals = residualTrees(instance.dimensions, order.length);
+        ResidualBuckets open = new ResidualBuckets(instance);
+        open.clear();
+        int binCount = 0;
+        int firstOpen = 0;
+        for (int item : order) {
+            int bin;
+            if (binCount - firstOpen <= CANDIDATE_BINS) {
+                bin = fullestOrEmptiest(instance, loads, firstOpen, binCount, item, worstFit);
+            } else {
+                bin = bucketedFit(instance, loads, open, item, worstFit);
+                if (bin < 0) {
+                    bin = leftmostFit(residuals, instance, item, 1);
+                }
+            }
+            if (bin < 0) {
+                bin = binCount++;
+                instance.clearLoads(loads, bin);
+            }
+            assignment[item] = bin;
+            instance.add(loads, bin, item);
+            setResiduals(residuals, instance, loads, bin);
+            if (instance.isClosed(loads, bin)) {
+                open.remove(bin);
+            } else {
+                open.put(bin, instance.capacities[0] - loads[bin]);
+            }
+            while (firstOpen < binCount && instance.isClosed(loads, firstOpen)) {
+                firstOpen++;
+            }
+        }
+        return binCount;
+    }
+
+    // The fullest (or emptiest) of bins [from, to) where the item fits, the first one among equals; -1 if none
+    static int fullestOrEmptiest(BinPackingInstance instance, int[] loads, int from, int to, int item,
+                                 boolean worstFit) {
+        int bin = -1;
+        double bestFill = 0;
+        for (int candidate = from; candidate < to; candidate++) {
+            if (instance.fits(loads, candidate, item)) {
+                double fill = instance.fill(loads, candidate, item);
+                if (bin < 0 || (worstFit ? fill < bestFill : fill > bestFill)) {
+                    bin = candidate;
+                    bestFill = fill;
+                }
+            }
+        }
+        return bin;
+    }
+
+    // The fullest (or emptiest) of the first CANDIDATE_BINS bins where the item fits, walking the buckets; -1
+    static int bucketedFit(BinPackingInstance instance, int[] loads, ResidualBuckets open, int item,
+                           boolean worstFit) {
+        int bin = -1;
+        double bestFill = 0;
+        int found = 0;
+        int budget = 4 * CANDIDATE_BINS;
+        int lowest = open.bucket(instance.demands[0][item]);
+        int step = worstFit ? -1 : 1;
+        for (int bucket = worstFit ? open.heads.length - 1 : lowest; bucket >= lowest && bucket < open.heads.length;
+             bucket += step) {
+            for (int candidate = open.heads[bucket]; candidate >= 0; candidate = open.next[candidate]) {
+                if (instance.fits(loads, candidate, item)) {
+                    double fill = instance.fill(loads, candidate, item);
+                    if (bin < 0 || (worstFit ? fill < bestFill : fill > bestFill)) {
+                        bin = candidate;
+                        bestFill = fill;
+                    }
+                    if (++found == CANDIDATE_BINS) {
+                        return bin;
+                    }
+                }
+                if (--budget == 0) {
+                    return bin;
+                }
+            }
+        }
+        return bin;
+    }
+
+    /*
+     * First-fit over all the items of an instance, with residual trees allocated once and reused between calls:
+     * for solvers that decode many orders without allocating (the PSO decodes every particle at every
+     * iteration). The trees only grow, so one packer serves any instance up to the largest it has seen, and a
+     * call only resets the bins the previous call opened.
+     */
+    static final class FirstFitPacker {
+        private MaxSegmentTree[] residuals = new MaxSegmentTree[0];
+        private int openedBins;
+
+        FirstFitPacker(BinPackingInstance instance) {
+            ensureCapacity(instance);
+        }
+
+        void ensureCapacity(BinPackingInstance instance) {
+            int bins = Math.max(instance.items, 1);
+            if (residuals.length < instance.dimensions || residuals[0].size < bins) {
+                int size = residuals.length == 0 ? bins : Math.max(bins, residuals[0].size);
+                residuals = residualTrees(Math.max(instance.dimensions, residuals.length), size);
+                openedBins = 0;
+            }
+        }
+
+        // Same contract as pack(instance, order, Rule.FIRST_FIT, assignment, loads), for the first instance.items
+        // entries of order (which holds every item); the arrays may be longer than the instance needs
+        int pack(BinPackingInstance instance, int[] order, int[] assignment, int[] loads) {
+            ensureCapacity(instance);
+            for (MaxSegmentTree tree : residuals) {
+                tree.clear(openedBins);
+            }
+            openedBins = instance.dimensions == 1
+                    ? firstOrWorstFit(instance.weights, order, instance.items, instance.capacity, false,
+                            assignment, loads, residuals[0])
+                    : vectorFirstFit(instance, order, instance.items, assignment, loads, residuals);
+            return openedBins;
+        }
+    }
+
+    /*
+     * Set of bins ordered by (residual capacity, bin index): a treap whose nodes are the bin indices themselves,
+     * in primitive arrays, so that nothing is allocated per placement. The priorities are a hash of the bin
+     * index: the tree is balanced in expectation and the packing stays deterministic.
+     */
+    static final class ResidualSet {
+        private final long[] keys;   // residual << 32 | bin
+        private final int[] priorities;
+        private final int[] left;    // -1 for none
+        private final int[] right;
+        private int root = -1;
+        private int splitLeft;       // results of split
+        private int splitRight;
+
+        ResidualSet(int bins) {
+            this.keys = new long[bins];
+            this.priorities = new int[bins];
+            this.left = new int[bins];
+            this.right = new int[bins];
+            for (int bin = 0; bin < bins; bin++) {
+                int hash = bin * 0x9E3779B9;
+                hash ^= hash >>> 16;
+                hash *= 0x85EBCA6B;
+                priorities[bin] = hash ^ (hash >>> 13);
+            }
+        }
+
+        // The bin must not be in the set
+        void add(int bin, int residual) {
+            keys[bin] = ((long) residual << 32) | bin;
+            left[bin] = -1;
+            right[bin] = -1;
+            split(root, keys[bin]);
+            int above = splitRight;
+            root = merge(merge(splitLeft, bin), above);
+        }
+
+        // The bin must be in the set
+        void remove(int bin) {
+            split(root, keys[bin]);
+            int below = splitLeft;
+            split(splitRight, keys[bin] + 1);
+            root = merge(below, splitRight);
+        }
+
+        // The bin with the least residual of at least residual (the lowest index among equals), or -1
+        int ceiling(int residual) {
+            long key = (long) residual << 32;
+            int found = -1;
+            for (int node = root; node >= 0; ) {
+                if (keys[node] >= key) {
+                    found = node;
+                    node = left[node];
+                } else {
+                    node = right[node];
+                }
+            }
+            return found;
+        }
+
+        // Splits the subtree into its keys below key (splitLeft) and the others (splitRight)
+        private void split(int node, long key) {
+            if (node < 0) {
+                splitLeft = -1;
+                splitRight = -1;
+            } else if (keys[node] < key) {
+                split(right[node], key);
+                right[node] = splitLeft;
+                splitLeft = node;
+            } else {
+                split(left[node], key);
+                left[node] = splitRight;
+                splitRight = node;
+            }
+        }
+
+        // Joins two subtrees, every key of the first below every key of the second
+        private int merge(int first, int second) {
+            if (first < 0) {
+                return second;
+            }
+            if (second < 0) {
+                return first;
+            }
+            if (priorities[first] > priorities[second]) {
+                right[first] = merge(right[first], second);
+                return first;
+            }
+            left[second] = merge(first, left[second]);
+            return second;
+        }
+    }
+
+    /*
+     * Max segment tree over bin residual capacities. Bins that are not open yet hold Integer.MIN_VALUE,
+     * so they are never returned by the queries.
+     */
+    static class MaxSegmentTree {
+        final int size;
+        final int[] tree;
+
+        MaxSegmentTree(int bins) {
+            int size = 1;
+            while (size < bins) {
+                size <<= 1;
+            }
+            this.size = size;
+            this.tree = new int[2 * size];
+            clear();
+        }
+
+        void clear() {
+            Arrays.fill(tree, Integer.MIN_VALUE);
+        }
+
+        // Resets bins [0, bins), assuming no other bin was set since the last reset: so are their ancestors
+        void clear(int bins) {
+            if (bins == 0) {
+                return;
+            }
+            for (int from = size, to = size + bins - 1; from >= 1; from >>= 1, to >>= 1) {
+                Arrays.fill(tree, from, to + 1, Integer.MIN_VALUE);
+            }
+        }
+
+        // Sets bins [0, bins) to capacity - loads[offset + bin] and clears the others, in O(size)
+        void rebuild(int[] loads, int offset, int capacity, int bins) {
+            for (int bin = 0; bin < size; bin++) {
+                tree[size + bin] = bin < bins ? capacity - loads[offset + bin] : Integer.MIN_VALUE;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        void set(int bin, int residual) {
+            int node = bin + size;
+            tree[node] = residual;
+            for (node >>= 1; node > 0; node >>= 1) {
+                tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        int get(int bin) {
+            return tree[bin + size];
+        }
+
+        // First bin whose residual is at least value, or -1
+        int leftmostAtLeast(int value) {
+            if (tree[1] < value) {
+                return -1;
+            }
+            int node = 1;
+            while (node < size) {
+                node = tree[2 * node] >= value ? 2 * node : 2 * node + 1;
+            }
+            return node - size;
+        }
+
+        // First bin holding the largest residual, provided it is at least value, or -1
+        int leftmostMax(int value) {
+            return leftmostAtLeast(Math.max(tree[1], value));
+        }
+    }
+}
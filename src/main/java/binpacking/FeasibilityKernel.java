@@ -0,0 +1,56 @@
+package binpacking;
+
+/*
+ * Scans of "does the item fit in these bins" over loads laid out as loads[d * stride + bin]. The scalar
+ * implementation below is always available; VectorFeasibilityKernel compares a whole vector of bins at once
+ * with the JDK Vector API and is used when the JVM runs with --add-modules jdk.incubator.vector.
+ */
+interface FeasibilityKernel {
+
+    // mask[bin] for the bins in [from, to); the rest of mask is left as it was
+    void fitMask(int[] loads, int stride, int from, int to, int[][] demands, int[] capacities, int item,
+                 boolean[] mask);
+
+    int firstFit(int[] loads, int stride, int from, int to, int[][] demands, int[] capacities, int item);
+
+    static FeasibilityKernel load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (FeasibilityKernel) Class.forName("binpacking.VectorFeasibilityKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall back to the scalar kernel
+            }
+        }
+        return new Scalar();
+    }
+
+    class Scalar implements FeasibilityKernel {
+        @Override
+        public void fitMask(int[] loads, int stride, int from, int to, int[][] demands, int[] capacities,
+                            int item, boolean[] mask) {
+            for (int bin = from; bin < to; bin++) {
+                mask[bin] = fits(loads, stride, bin, demands, capacities, item);
+            }
+        }
+
+        @Override
+        public int firstFit(int[] loads, int stride, int from, int to, int[][] demands, int[] capacities, int item) {
+            for (int bin = from; bin < to; bin++) {
+                if (fits(loads, stride, bin, demands, capacities, item)) {
+                    return bin;
+                }
+            }
+            return -1;
+        }
+
+        static boolean fits(int[] loads, int stride, int bin, int[][] demands, int[] capacities, int item) {
+            for (int d = 0; d < capacities.length; d++) {
+                if (loads[d * stride + bin] + demands[d][item] > capacities[d]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package binpacking;
+
+import binpacking.BinPackingGeneticAlgorithm.Chromosome;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Crossover of Falkenauer's grouping genetic algorithm, on packings given as bin assignments. A child is parent1
+ * with a run of bins of parent2 injected at a random position; the bins of parent1 that share an item with the
+ * injected ones are dropped, and their other items (the free items) are put back by
+ *  - a dominance local search: in each bin, one or two items are replaced by a single larger free item that
+ *    still fits, the replaced items becoming free. The bin then dominates its former self (it holds more, in
+ *    fewer items), and the free items left are smaller, so easier to place;
+ *  - first-fit decreasing for the free items left, a bin being opened only when none fits.
+ * Children inherit whole bins, so a well-filled bin survives crossover intact, which is what the bin count
+ * depends on.
+ *
+ * Item sets are bitsets (injected items, placed items): a membership test is a bit test and the free items are
+ * enumerated a word of 64 items at a time. The scratch arrays belong to the crossover object, one per
+ * generation (or per thread), not per child.
+ */
+final class GroupingCrossover {
+    private static final int MAX_CANDIDATES = 8;       // free items tried per replacement, several dimensions only
+    private static final float SLACK_TOLERANCE = 1e-4f; // float rounding of the normalized sizes
+
+    private final BinPackingInstance instance;
+    private final Objective objective; // scores the children
+    private final float[] sizes;       // BinPackingInstance.size of each item
+    private final boolean decreasing;  // sizes never increase with the index (the GA sorts its instance so)
+    private final long[] injected;
+    private final long[] placed;
+    private final boolean[] dropped;   // per bin of parent1
+    private final int[] binMap;        // child bin of each kept bin of parent1
+    private final int[] free;          // free items by decreasing size, free[0, freeCount)
+    private final float[] freeSizes;   // their sizes, for the searches
+    private int freeCount;
+    private final long[] keys;         // sort keys of the free items
+    private final int[] binStarts;     // items of child bin b: binItems[binStarts[b], binStarts[b] + binSizes[b])
+    private final int[] binSizes;
+    private final int[] binItems;
+    private final ConstructionHeuristics.MaxSegmentTree[] residuals;
+
+    GroupingCrossover(BinPackingInstance instance, Objective objective) {
+        int items = instance.items;
+        this.instance = instance;
+        this.objective = objective;
+        this.sizes = new float[items];
+        boolean decreasing = true;
+        for (int item = 0; item < items; item++) {
+            sizes[item] = instance.size(item);
+            decreasing &= item == 0 || sizes[item] <= sizes[item - 1];
+        }
+        this.decreasing = decreasing;
+        this.injected = new long[(items + 63) >>> 6];
+        this.placed = new long[injected.length];
+        this.dropped = new boolean[items];
+        this.binMap = new int[items];
+        this.free = new int[items];
+        this.freeSizes = new float[items];
+        this.keys = new long[items];
+        this.binStarts = new int[items + 1];
+        this.binSizes = new int[items];
+        this.binItems = new int[items];
+        this.residuals = ConstructionHeuristics.residualTrees(instance.dimensions, items);
+    }
+
+    Chromosome cross(Chromosome parent1, Chromosome parent2, Random random) {
+        int items = instance.items;
+        if (items == 0) {
+            return parent1.copy();
+        }
+        int from = random.nextInt(parent2.binCount);
+        int to = from + 1 + random.nextInt(parent2.binCount - from);
+        int position = random.nextInt(parent1.binCount + 1);
+        Arrays.fill(injected, 0);
+        Arrays.fill(placed, 0);
+        Arrays.fill(dropped, 0, parent1.binCount, false);
+        for (int item = 0; item < items; item++) {
+            int bin = parent2.assignment[item];
+            if (bin >= from && bin < to) {
+                injected[item >>> 6] |= 1L << item;
+                dropped[parent1.assignment[item]] = true;
+            }
+        }
+        // kept bins of parent1 before position, then the injected bins, then the other kept bins of parent1
+        int binCount = 0;
+        for (int bin = 0; bin < position; bin++) {
+            if (!dropped[bin]) {
+                binMap[bin] = binCount++;
+            }
+        }
+        int injectedBase = binCount;
+        binCount += to - from;
+        for (int bin = position; bin < parent1.binCount; bin++) {
+            if (!dropped[bin]) {
+                binMap[bin] = binCount++;
+            }
+        }
+        int[] assignment = new int[items];
+        int[] loads = instance.newLoads();
+        for (int item = 0; item < items; item++) {
+            int bin;
+            if ((injected[item >>> 6] & (1L << item)) != 0) {
+                bin = injectedBase + parent2.assignment[item] - from;
+            } else if (!dropped[parent1.assignment[item]]) {
+                bin = binMap[parent1.assignment[item]];
+            } else {
+                continue;
+            }
+            assignment[item] = bin;
+            instance.add(loads, bin, item);
+            placed[item >>> 6] |= 1L << item;
+        }
+        collectFreeItems();
+        replaceDominated(assignment, loads, binCount);
+        binCount = firstFit(assignment, loads, binCount);
+        objective.align(instance, assignment, loads, binCount);
+        return new Chromosome(assignment, loads, binCount, objective.score(instance, loads, binCount, assignment));
+    }
+
+    // free = the items not placed, by decreasing size (ties by index), which is index order when decreasing
+    private void collectFreeItems() {
+        int items = instance.items;
+        freeCount = 0;
+        for (int w = 0; w < placed.length; w++) {
+            long word = ~placed[w];
+            if (w == placed.length - 1 && (items & 63) != 0) {
+                word &= (1L << items) - 1;
+            }
+            while (word != 0) {
+                int item = (w << 6) + Long.numberOfTrailingZeros(word);
+                keys[freeCount++] = key(item);
+                word &= word - 1;
+            }
+        }
+        if (!decreasing) {
+            Arrays.sort(keys, 0, freeCount);
+        }
+        for (int k = 0; k < freeCount; k++) {
+            free[k] = (int) keys[k];
+            freeSizes[k] = sizes[free[k]];
+        }
+    }
+
+    // Positive floats sort like their bit patterns; the index goes in the low 32 bits
+    private long key(int item) {
+        return ((long) (Integer.MAX_VALUE - Float.floatToIntBits(Math.max(sizes[item], 0f))) << 32) | item;
+    }
+
+    private void replaceDominated(int[] assignment, int[] loads, int binCount) {
+        if (freeCount == 0) {
+            return;
+        }
+        Arrays.fill(binSizes, 0, binCount, 0);
+        for (int item = 0; item < instance.items; item++) {
+            if ((placed[item >>> 6] & (1L << item)) != 0) {
+                binSizes[assignment[item]]++;
+            }
+        }
+        binStarts[0] = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            binStarts[bin + 1] = binStarts[bin] + binSizes[bin];
+            binSizes[bin] = 0;
+        }
+        for (int item = 0; item < instance.items; item++) {
+            if ((placed[item >>> 6] & (1L << item)) != 0) {
+                int bin = assignment[item];
+                binItems[binStarts[bin] + binSizes[bin]++] = item;
+            }
+        }
+        for (int bin = 0; bin < binCount && freeCount > 0; bin++) {
+            if (instance.dimensions == 1 && loads[bin] >= instance.capacity) {
+                continue;
+            }
+            while (replaceInBin(bin, assignment, loads)) {
+                // every replacement makes the bin fuller, so this ends
+            }
+        }
+    }
+
+    // One replacement in the bin, two items by one first; false if none was found
+    private boolean replaceInBin(int bin, int[] assignment, int[] loads) {
+        int start = binStarts[bin];
+        int count = binSizes[bin];
+        for (int p = 0; p < count; p++) {
+            for (int q = p + 1; q < count; q++) {
+                int i = binItems[start + p];
+                int j = binItems[start + q];
+                int k = findReplacement(bin, loads, i, j, sizes[i] + sizes[j]);
+                if (k >= 0) {
+                    replace(bin, assignment, loads, k, p, q);
+                    return true;
+                }
+            }
+        }
+        for (int p = 0; p < count; p++) {
+            int i = binItems[start + p];
+            int k = findReplacement(bin, loads, i, -1, sizes[i]);
+            if (k >= 0) {
+                replace(bin, assignment, loads, k, p, -1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Index in free of a free item larger than items i and j (j < 0: i alone) that fits in the bin in their place,
+     * or -1. A free item that fits is at most their size plus the slack of the bin (exactly so in one dimension),
+     * so the search starts there, with a binary search, and goes down to their size.
+     */
+    private int findReplacement(int bin, int[] loads, int i, int j, float removed) {
+        if (freeCount == 0 || freeSizes[0] <= removed) {
+            return -1;
+        }
+        float bound = removed + slack(loads, bin);
+        int low = 0;
+        int high = freeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (freeSizes[mid] > bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int k = low, tried = 0; k < freeCount && freeSizes[k] > removed && tried < MAX_CANDIDATES;
+             k++, tried++) {
+            if (fitsInstead(bin, loads, i, j, free[k])) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    // Free room of the bin in size units (see BinPackingInstance.size)
+    private float slack(int[] loads, int bin) {
+        if (instance.dimensions == 1) {
+            return instance.capacity - loads[bin];
+        }
+        float slack = SLACK_TOLERANCE;
+        for (int d = 0; d < instance.dimensions; d++) {
+            slack += (float) (instance.capacities[d] - loads[d * instance.items + bin]) / instance.capacities[d];
+        }
+        return slack;
+    }
+
+    private boolean fitsInstead(int bin, int[] loads, int i, int j, int candidate) {
+        for (int d = 0; d < instance.dimensions; d++) {
+            int[] demands = instance.demands[d];
+            int load = loads[d * instance.items + bin] - demands[i] - (j < 0 ? 0 : demands[j]) + demands[candidate];
+            if (load > instance.capacities[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Puts free[k] in the bin instead of its items at positions p and q (q < 0: p alone), which become free
+    private void replace(int bin, int[] assignment, int[] loads, int k, int p, int q) {
+        int start = binStarts[bin];
+        int candidate = free[k];
+        System.arraycopy(free, k + 1, free, k, freeCount - k - 1);
+        System.arraycopy(freeSizes, k + 1, freeSizes, k, freeCount - k - 1);
+        freeCount--;
+        int i = binItems[start + p];
+        instance.remove(loads, bin, i);
+        release(i);
+        if (q >= 0) {
+            int j = binItems[start + q];
+            instance.remove(loads, bin, j);
+            release(j);
+            binItems[start + q] = binItems[start + --binSizes[bin]];
+        }
+        binItems[start + p] = candidate;
+        assignment[candidate] = bin;
+        instance.add(loads, bin, candidate);
+    }
+
+    // Inserts an item in free, keeping the order
+    private void release(int item) {
+        float size = sizes[item];
+        int low = 0;
+        int high = freeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (freeSizes[mid] > size || (freeSizes[mid] == size && free[mid] < item)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        System.arraycopy(free, low, free, low + 1, freeCount - low);
+        System.arraycopy(freeSizes, low, freeSizes, low + 1, freeCount - low);
+        free[low] = item;
+        freeSizes[low] = size;
+        freeCount++;
+    }
+
+    // First-fit decreasing of the free items, with the residual trees of the first-fit heuristic; returns the new
+    // bin count
+    private int firstFit(int[] assignment, int[] loads, int binCount) {
+        int items = instance.items;
+        for (int d = 0; d < instance.dimensions; d++) {
+            residuals[d].rebuild(loads, d * items, instance.capacities[d], binCount);
+        }
+        if (instance.dimensions > 1) {
+            for (int bin = 0; bin < binCount; bin++) {
+                if (instance.isClosed(loads, bin)) {
+                    ConstructionHeuristics.setResiduals(residuals, instance, loads, bin);
+                }
+            }
+        }
+        for (int k = 0; k < freeCount; k++) {
+            int item = free[k];
+            int bin = instance.dimensions == 1
+                    ? residuals[0].leftmostAtLeast(instance.weights[item])
+                    : ConstructionHeuristics.leftmostFit(residuals, instance, item, 1);
+            if (bin < 0) {
+                bin = binCount++;
+                instance.clearLoads(loads, bin);
+            }
+            assignment[item] = bin;
+            instance.add(loads, bin, item);
+            ConstructionHeuristics.setResiduals(residuals, instance, loads, bin);
+        }
+        freeCount = 0;
+        return binCount;
+    }
+}
@@ -0,0 +1,450 @@
+package binpacking;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * Incremental re-optimization of a live placement: instead of solving the new instance from scratch, the
+ * previous packing is carried over the changes (InstanceDelta), repaired, and only the bins around the changes
+ * are re-optimized:
+ *  1. the items that stay keep their bin, and a bin that no longer holds its items (after a resize) evicts its
+ *     largest items until it does;
+ *  2. the new and evicted items go, largest first, into the fullest bin where they fit (best-fit), a new bin
+ *     being opened only when none does;
+ *  3. the bins touched by 1 and 2, with the NEIGHBOUR_BINS least filled other bins (where items can be
+ *     consolidated), form a sub-instance given to a solver, warm-started from their current packing (see
+ *     Incumbent) and minimizing config.objective. Its bins are matched with the old ones so that as few items as
+ *     possible move, and the result replaces them only if the objective ranks it above the current packing.
+ *     With migration costs, the sub-instance minimizes config.objective plus the cost of the items that leave
+ *     their bin of the previous packing (see Objective.migrations), ranked by cost alone as sums are.
+ * The other bins are left as they are, so few items migrate (stay but change bin) and the time taken depends on
+ * the size of the change, not of the instance.
+ *
+ * Packings are stored as text, the bin of each item in item order, one per line.
+ */
+public class IncrementalSolver {
+    static final String WARM_START = "WarmStart";
+    static final int NEIGHBOUR_BINS = 8;
+
+    // The new instance and its packing, with what the update changed
+    public static final class Update {
+        public final BinPackingInstance instance;
+        public final Packing packing;
+        final int evicted;     // items taken out of a bin that no longer held them
+        final int regionBins;  // bins given to the solver, 0 when nothing was worth re-optimizing
+        final int migrations;  // items of the previous instance now in another bin
+
+        Update(BinPackingInstance instance, Packing packing, int evicted, int regionBins, int migrations) {
+            this.instance = instance;
+            this.packing = packing;
+            this.evicted = evicted;
+            this.regionBins = regionBins;
+            this.migrations = migrations;
+        }
+    }
+
+    /*
+     * Applies delta to previous, packed as previousAssignment, and re-optimizes the bins around the changes with
+     * solver until the deadline (a System.nanoTime() value, or Incumbent.NO_DEADLINE).
+     */
+    public static Update update(BinPackingInstance previous, int[] previousAssignment, InstanceDelta delta,
+                                BinPackingSolver solver, SolverConfig config, long seed, long deadline) {
+        return update(previous, previousAssignment, delta, null, solver, config, seed, deadline);
+    }
+
+    /*
+     * The same, migrationCosts[item] being the cost of moving the item of previous out of its bin, e.g. its
+     * memory size (null when migrations are free).
+     */
+    public static Update update(BinPackingInstance previous, int[] previousAssignment, InstanceDelta delta,
+                                int[] migrationCosts, BinPackingSolver solver, SolverConfig config, long seed,
+                                long deadline) {
+        BinPackingInstance instance = delta.apply(previous);
+        int[] itemMap = delta.itemMap();
+        int previousBins = 0;
+        for (int bin : previousAssignment) {
+            previousBins = Math.max(previousBins, bin + 1);
+        }
+        // bins are renumbered when some empty; origin[bin] is the bin of the previous packing, -1 for a new one
+        int[] origin = new int[Math.max(previousBins, instance.items)];
+        boolean[] touched = new boolean[origin.length];
+        for (int bin = 0; bin < previousBins; bin++) {
+            origin[bin] = bin;
+        }
+        int[] assignment = new int[instance.items];
+        Arrays.fill(assignment, -1);
+        for (int item = 0; item < previous.items; item++) {
+            int bin = previousAssignment[item];
+            if (itemMap[item] < 0 || delta.isResized(item)) {
+                touched[bin] = true;
+            }
+            if (itemMap[item] >= 0) {
+                assignment[itemMap[item]] = bin;
+            }
+        }
+        int binCount = compact(assignment, previousBins, origin, touched);
+        int[] loads = instance.newLoads();
+        for (int item = 0; item < instance.items; item++) {
+            if (assignment[item] >= 0) {
+                instance.add(loads, assignment[item], item);
+            }
+        }
+        int evicted = evictOverflow(instance, assignment, loads);
+        binCount = placeUnassigned(instance, assignment, loads, binCount, origin, touched);
+
+        int[] region = region(instance, loads, binCount, touched);
+        int[] previousBinOf = null;
+        int[] costs = null;
+        if (migrationCosts != null) {
+            previousBinOf = previousBins(previousAssignment, itemMap, origin, binCount, instance.items);
+            costs = new int[instance.items];
+            for (int item = 0; item < previous.items; item++) {
+                if (itemMap[item] >= 0) {
+                    costs[itemMap[item]] = migrationCosts[item];
+                }
+            }
+        }
+        String foundBy = WARM_START;
+        if (region.length > 1 && reoptimize(instance, assignment, region, solver, config, config.objective,
+                previousBinOf, costs, seed, deadline)) {
+            foundBy = solver.name();
+        }
+        binCount = compact(assignment, binCount, origin, touched);
+        int migrations = 0;
+        for (int item = 0; item < previous.items; item++) {
+            if (itemMap[item] >= 0 && origin[assignment[itemMap[item]]] != previousAssignment[item]) {
+                migrations++;
+            }
+        }
+        Packing packing = Packing.of(instance, assignment, binCount, foundBy, config.objective);
+        return new Update(instance, packing, evicted, region.length > 1 ? region.length : 0, migrations);
+    }
+
+    /*
+     * The bin of each item of the new instance in the previous packing, in the current bin numbering; -1 for a
+     * new item, or one whose previous bin is gone (it moves wherever it goes).
+     */
+    static int[] previousBins(int[] previousAssignment, int[] itemMap, int[] origin, int binCount, int items) {
+        int[] currentBin = new int[origin.length];
+        Arrays.fill(currentBin, -1);
+        for (int bin = 0; bin < binCount; bin++) {
+            if (origin[bin] >= 0) {
+                currentBin[origin[bin]] = bin;
+            }
+        }
+        int[] previousBins = new int[items];
+        Arrays.fill(previousBins, -1);
+        for (int item = 0; item < itemMap.length; item++) {
+            if (itemMap[item] >= 0) {
+                previousBins[itemMap[item]] = currentBin[previousAssignment[item]];
+            }
+        }
+        return previousBins;
+    }
+
+    // Removes the empty bins, keeping the order of the others; origin and touched follow their bins
+    static int compact(int[] assignment, int binCount, int[] origin, boolean[] touched) {
+        int[] renumber = new int[binCount];
+        for (int bin : assignment) {
+            if (bin >= 0) {
+                renumber[bin]++;
+            }
+        }
+        int next = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            if (renumber[bin] > 0) {
+                origin[next] = origin[bin];
+                touched[next] = touched[bin];
+                renumber[bin] = next++;
+            }
+        }
+        for (int item = 0; item < assignment.length; item++) {
+            if (assignment[item] >= 0) {
+                assignment[item] = renumber[assignment[item]];
+            }
+        }
+        return next;
+    }
+
+    // Unassigns the largest items of every overfull bin until it fits; returns how many were taken out
+    static int evictOverflow(BinPackingInstance instance, int[] assignment, int[] loads) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int item = 0; item < instance.items; item++) {
+            if (assignment[item] >= 0 && overfull(instance, loads, assignment[item])) {
+                candidates.add(item);
+            }
+        }
+        candidates.sort(bySizeDecreasing(instance));
+        int evicted = 0;
+        for (int item : candidates) {
+            int bin = assignment[item];
+            if (overfull(instance, loads, bin)) {
+                instance.remove(loads, bin, item);
+                assignment[item] = -1;
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    static boolean overfull(BinPackingInstance instance, int[] loads, int bin) {
+        for (int d = 0; d < instance.dimensions; d++) {
+            if (loads[d * instance.items + bin] > instance.capacities[d]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Best-fit of the unassigned items, largest first; returns the new bin count
+    static int placeUnassigned(BinPackingInstance instance, int[] assignment, int[] loads, int binCount,
+                               int[] origin, boolean[] touched) {
+        List<Integer> unassigned = new ArrayList<>();
+        for (int item = 0; item < instance.items; item++) {
+            if (assignment[item] < 0) {
+                unassigned.add(item);
+            }
+        }
+        unassigned.sort(bySizeDecreasing(instance));
+        boolean[] fits = new boolean[instance.items];
+        for (int item : unassigned) {
+            instance.fitMask(loads, binCount, item, fits);
+            int bin = -1;
+            double fullest = -1;
+            for (int candidate = 0; candidate < binCount; candidate++) {
+                if (fits[candidate]) {
+                    double fill = instance.fill(loads, candidate, item);
+                    if (fill > fullest) {
+                        fullest = fill;
+                        bin = candidate;
+                    }
+                }
+            }
+            if (bin < 0) {
+                bin = binCount++;
+                instance.clearLoads(loads, bin);
+                origin[bin] = -1;
+            }
+            touched[bin] = true;
+            assignment[item] = bin;
+            instance.add(loads, bin, item);
+        }
+        return binCount;
+    }
+
+    // The touched bins and the NEIGHBOUR_BINS least filled others, in increasing order
+    static int[] region(BinPackingInstance instance, int[] loads, int binCount, boolean[] touched) {
+        List<Integer> others = new ArrayList<>();
+        List<Integer> region = new ArrayList<>();
+        for (int bin = 0; bin < binCount; bin++) {
+            (touched[bin] ? region : others).add(bin);
+        }
+        others.sort(Comparator.comparingDouble(bin -> instance.fill(loads, bin, -1)));
+        region.addAll(others.subList(0, Math.min(NEIGHBOUR_BINS, others.size())));
+        return region.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /*
+     * Solves the sub-instance made of the items of the region bins, warm-started from their current packing,
+     * minimizing objective (an objective of the whole instance), plus migrationCosts[item] for an item that
+     * leaves previousBins[item] when previousBins is not null. Each new bin takes the number of the old bin it
+     * shares the most items with (greedily, largest overlaps first); the old bins left over end up empty. The
+     * result is put back if, so numbered, the objective ranks it above the current packing of the region.
+     * Returns true if the packing changed.
+     */
+    static boolean reoptimize(BinPackingInstance instance, int[] assignment, int[] region, BinPackingSolver solver,
+                              SolverConfig config, Objective objective, int[] previousBins, int[] migrationCosts,
+                              long seed, long deadline) {
+        int[] local = new int[instance.items];
+        Arrays.fill(local, -1);
+        for (int k = 0; k < region.length; k++) {
+            local[region[k]] = k;
+        }
+        int count = 0;
+        for (int bin : assignment) {
+            count += local[bin] >= 0 ? 1 : 0;
+        }
+        int[] items = new int[count];
+        int[] current = new int[count];
+        for (int item = 0, i = 0; item < instance.items; item++) {
+            if (local[assignment[item]] >= 0) {
+                items[i] = item;
+                current[i++] = local[assignment[item]];
+            }
+        }
+        BinPackingInstance sub = instance.permute(items);
+        if (previousBins != null) {
+            int[] localBins = new int[instance.items];
+            for (int item = 0; item < instance.items; item++) {
+                localBins[item] = previousBins[item] >= 0 ? local[previousBins[item]] : -1;
+            }
+            objective = Objective.sum(objective, Objective.migrations(localBins, migrationCosts));
+        }
+        Objective subObjective = objective.renumbered(items);
+        Incumbent incumbent = new Incumbent(sub, deadline, subObjective);
+        Packing warmStart = Packing.of(sub, current, region.length, WARM_START, subObjective);
+        incumbent.offer(warmStart.assignment, warmStart.binCount, warmStart.fitness, WARM_START);
+        if (!incumbent.shouldStop()) {
+            solver.solve(sub, config.withObjective(subObjective), seed, incumbent);
+        }
+        Packing best = incumbent.best();
+        // nothing better than the warm start, or more bins than the region holds
+        if (best.solver.equals(WARM_START) || best.binCount > region.length) {
+            return false;
+        }
+        // overlaps as (count, new bin, old bin) keys, largest count first
+        long[] pairs = new long[count];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = (long) best.assignment[i] * region.length + current[i];
+        }
+        Arrays.sort(pairs);
+        List<long[]> overlaps = new ArrayList<>();
+        for (int i = 0; i < count; ) {
+            int j = i;
+            while (j < count && pairs[j] == pairs[i]) {
+                j++;
+            }
+            overlaps.add(new long[] {j - i, pairs[i] / region.length, pairs[i] % region.length});
+            i = j;
+        }
+        overlaps.sort((a, b) -> Long.compare(b[0], a[0]));
+        int[] target = new int[best.binCount];
+        Arrays.fill(target, -1);
+        boolean[] taken = new boolean[region.length];
+        for (long[] overlap : overlaps) {
+            int newBin = (int) overlap[1];
+            int oldBin = (int) overlap[2];
+            if (target[newBin] < 0 && !taken[oldBin]) {
+                target[newBin] = oldBin;
+                taken[oldBin] = true;
+            }
+        }
+        for (int newBin = 0, oldBin = 0; newBin < target.length; newBin++) {
+            if (target[newBin] < 0) {
+                while (taken[oldBin]) {
+                    oldBin++;
+                }
+                target[newBin] = oldBin;
+                taken[oldBin] = true;
+            }
+        }
+        int[] matched = new int[count];
+        for (int i = 0; i < count; i++) {
+            matched[i] = target[best.assignment[i]];
+        }
+        // the old bins left empty cost nothing, so the matched packing is scored on all the region bins
+        int cost = subObjective.score(sub, matched, region.length);
+        if (!subObjective.isBetter(best.binCount, cost, warmStart.binCount, warmStart.fitness)) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            assignment[items[i]] = region[matched[i]];
+        }
+        return true;
+    }
+
+    static Comparator<Integer> bySizeDecreasing(BinPackingInstance instance) {
+        return (a, b) -> Float.compare(instance.size(b), instance.size(a));
+    }
+
+    public static int[] readAssignment(Path path, BinPackingInstance instance) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        int[] assignment = new int[instance.items];
+        int item = 0;
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (item == instance.items) {
+                throw new IOException(path + ": more bins than the " + instance.items + " items of the instance");
+            }
+            try {
+                assignment[item] = Integer.parseInt(line);
+            } catch (NumberFormatException e) {
+                throw new IOException(path + ": not a bin index: " + line, e);
+            }
+            if (assignment[item] < 0) {
+                throw new IOException(path + ": negative bin index " + line);
+            }
+            if (assignment[item++] >= instance.items) {
+                throw new IOException(path + ": bin index " + line + " out of range, the instance has "
+                        + instance.items + " items");
+            }
+        }
+        if (item != instance.items) {
+            throw new IOException(path + ": " + item + " bins for " + instance.items + " items");
+        }
+        return assignment;
+    }
+
+    public static void writeAssignment(Path path, Packing packing) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int bin : packing.assignment) {
+                writer.write(Integer.toString(bin));
+                writer.newLine();
+            }
+        }
+    }
+
+    /*
+     * Usage:
+     *   IncrementalSolver solve <instance> <packing out> [solver] [budget ms]
+     *       full solve, to get a first packing
+     *   IncrementalSolver update <instance> <packing> <delta> <instance out> <packing out> [solver] [budget ms]
+     *       applies the delta, writes the new instance (binary format) and its packing
+     * solver is GA, PSO (default), ACO or Portfolio; the budget defaults to 1000 ms for solve, 50 ms for update.
+     * The system property binpacking.migrations gives update a cost per item that changes bin (0, the default,
+     * for free migrations).
+     */
+    public static void main(String[] args) throws IOException {
+        boolean solve = args.length >= 3 && args[0].equals("solve");
+        if (!solve && !(args.length >= 6 && args[0].equals("update"))) {
+            System.err.println("Usage: IncrementalSolver solve <instance> <packing out> [solver] [budget ms]");
+            System.err.println("       IncrementalSolver update <instance> <packing> <delta> <instance out>"
+                    + " <packing out> [solver] [budget ms]");
+            System.exit(1);
+        }
+        int options = solve ? 3 : 6;
+        BinPackingSolver solver = BatchSolver.solverNamed(args.length > options ? args[options] : BinPackingPSO.NAME);
+        long budget = args.length > options + 1 ? Long.parseLong(args[options + 1]) : solve ? 1000 : 50;
+        SolverConfig config = new SolverConfig();
+        BinPackingInstance instance = InstanceLoader.load(args[1]);
+        long start = System.nanoTime();
+        if (solve) {
+            Packing packing = solver.solve(instance, config, 42, Incumbent.deadlineIn(budget));
+            writeAssignment(Paths.get(args[2]), packing);
+            System.out.println("Bins: " + packing.binCount + " (lower bound " + LowerBounds.l2(instance) + ")");
+            System.out.println("Took " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } else {
+            int[] assignment = readAssignment(Paths.get(args[2]), instance);
+            InstanceDelta delta = InstanceDelta.read(Paths.get(args[3]), instance);
+            int migrationCost = Integer.getInteger("binpacking.migrations", 0);
+            int[] migrationCosts = null;
+            if (migrationCost > 0) {
+                migrationCosts = new int[instance.items];
+                Arrays.fill(migrationCosts, migrationCost);
+            }
+            Update update = update(instance, assignment, delta, migrationCosts, solver, config, 42,
+                    Incumbent.deadlineIn(budget));
+            long elapsed = System.nanoTime() - start;
+            InstanceLoader.writeBinary(Paths.get(args[4]), update.instance);
+            writeAssignment(Paths.get(args[5]), update.packing);
+            int previousBins = Arrays.stream(assignment).max().orElse(-1) + 1;
+            System.out.println("Items: " + instance.items + " -> " + update.instance.items);
+            System.out.println("Bins: " + previousBins + " -> " + update.packing.binCount
+                    + " (lower bound " + LowerBounds.l2(update.instance) + ")");
+            System.out.println("Evicted: " + update.evicted + ", re-optimized bins: " + update.regionBins
+                    + " (" + update.packing.solver + "), migrations: " + update.migrations);
+            System.out.println("Update took " + elapsed / 1_000_000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package binpacking;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Best packing found so far by the solvers working on one instance, shared by the threads of a portfolio.
+ * Solvers offer their improvements, may import a better packing found by another solver, and stop as soon as
+ * shouldStop() is true: when the deadline has passed or when a packing reaches the lower bound, since nothing
+ * better can be found then. Packings are ranked by the objective of the run (see Objective); only an objective
+ * that ranks by bin count first stops at the lower bound, the others run to the deadline.
+ *
+ * A solver that renumbers the items (the GA works on items sorted by decreasing size) works through a view
+ * returned by renumbered(), which translates the assignments both ways.
+ *
+ * A packing offered before the solvers start is a warm start: each solver seeds its search with it (the GA
+ * population, the PSO swarm, the ACO trails), see IncrementalSolver.
+ */
+public final class Incumbent {
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final class Shared {
+        final AtomicReference<Packing> best = new AtomicReference<>();
+        volatile boolean boundReached;
+        volatile boolean stopped;
+    }
+
+    final BinPackingInstance instance;
+    final int lowerBound;
+    final long deadline; // System.nanoTime() value, or NO_DEADLINE
+    final Objective objective;
+    private final Shared shared;
+    private final int[] order; // item i of this view is item order[i] of the instance, null for the same numbering
+
+    public Incumbent(BinPackingInstance instance, long deadline) {
+        this(instance, deadline, Objective.BIN_COUNT);
+    }
+
+    public Incumbent(BinPackingInstance instance, long deadline, Objective objective) {
+        this(instance, LowerBounds.l2(instance), deadline, objective, new Shared(), null);
+    }
+
+    private Incumbent(BinPackingInstance instance, int lowerBound, long deadline, Objective objective,
+                      Shared shared, int[] order) {
+        this.instance = instance;
+        this.lowerBound = lowerBound;
+        this.deadline = deadline;
+        this.objective = objective;
+        this.shared = shared;
+        this.order = order;
+    }
+
+    // Deadline in the given number of milliseconds from now
+    public static long deadlineIn(long millis) {
+        return System.nanoTime() + millis * 1_000_000;
+    }
+
+    // The same incumbent seen by a solver whose item i is item order[i] of the instance
+    Incumbent renumbered(int[] order) {
+        return new Incumbent(instance, lowerBound, deadline, objective, shared, order);
+    }
+
+    public boolean shouldStop() {
+        return shared.boundReached || shared.stopped
+                || (deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0);
+    }
+
+    // Makes shouldStop() true from now on, for every view: the run is abandoned (see PortfolioSolver)
+    void stop() {
+        shared.stopped = true;
+    }
+
+    // Best packing so far, in the numbering of the instance (not of this view), or null
+    public Packing best() {
+        return shared.best.get();
+    }
+
+    // Could a packing of that size and fitness improve the incumbent? A cheap test before building it.
+    boolean accepts(int binCount, int fitness) {
+        Packing best = shared.best.get();
+        return best == null || objective.isBetter(binCount, fitness, best.binCount, best.fitness);
+    }
+
+    /*
+     * Offers a packing, given in the numbering of this view (the array is copied). Returns true if it became
+     * the incumbent.
+     */
+    boolean offer(int[] assignment, int binCount, int fitness, String solver) {
+        if (!accepts(binCount, fitness)) {
+            return false;
+        }
+        int[] translated = new int[assignment.length];
+        for (int item = 0; item < assignment.length; item++) {
+            translated[order == null ? item : order[item]] = assignment[item];
+        }
+        Packing candidate = new Packing(translated, binCount, fitness, solver);
+        while (true) {
+            Packing best = shared.best.get();
+            if (best != null && !objective.isBetter(binCount, fitness, best.binCount, best.fitness)) {
+                return false;
+            }
+            if (shared.best.compareAndSet(best, candidate)) {
+                if (binCount <= lowerBound && objective.binsFirst()) {
+                    shared.boundReached = true;
+                }
+                return true;
+            }
+        }
+    }
+
+    // Assignment of a packing of the incumbent (e.g. best()) in the numbering of this view (a new array)
+    int[] assignmentOf(Packing packing) {
+        int[] assignment = packing.assignment;
+        int[] translated = new int[assignment.length];
+        for (int item = 0; item < assignment.length; item++) {
+            translated[item] = assignment[order == null ? item : order[item]];
+        }
+        return translated;
+    }
+}
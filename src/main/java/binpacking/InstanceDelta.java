@@ -0,0 +1,137 @@
+package binpacking;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Changes between two consecutive instances of a live placement: items (VMs) that arrive, depart or change
+ * size. The text format has one change per line, with item indices in the previous instance and one demand
+ * per dimension:
+ *     add <demand>...
+ *     remove <item>
+ *     resize <item> <demand>...
+ * Blank lines and lines starting with # are ignored. In the new instance the remaining items keep their
+ * relative order and the added items follow, in the order of the file.
+ */
+public final class InstanceDelta {
+    final List<int[]> added = new ArrayList<>();          // demands of each new item
+    final Map<Integer, int[]> resized = new HashMap<>();  // item of the previous instance -> new demands
+    final boolean[] removed;
+
+    public InstanceDelta(int previousItems) {
+        this.removed = new boolean[previousItems];
+    }
+
+    public void add(int... demands) {
+        added.add(demands);
+    }
+
+    public void remove(int item) {
+        removed[item] = true;
+        resized.remove(item);
+    }
+
+    public void resize(int item, int... demands) {
+        resized.put(item, demands);
+    }
+
+    public static InstanceDelta read(Path path, BinPackingInstance previous) throws IOException {
+        InstanceDelta delta = new InstanceDelta(previous.items);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            for (int number = 1; (line = reader.readLine()) != null; number++) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                try {
+                    switch (fields[0]) {
+                        case "add":
+                            delta.add(demands(fields, 1, previous));
+                            break;
+                        case "remove":
+                            checkFields(fields, 2);
+                            delta.remove(item(fields[1], previous));
+                            break;
+                        case "resize":
+                            delta.resize(item(fields[1], previous), demands(fields, 2, previous));
+                            break;
+                        default:
+                            throw new IllegalArgumentException("unknown change " + fields[0]);
+                    }
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException(path + ":" + number + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return delta;
+    }
+
+    private static int item(String field, BinPackingInstance previous) {
+        int item = Integer.parseInt(field);
+        if (item < 0 || item >= previous.items) {
+            throw new IllegalArgumentException("no item " + item + " in the previous instance");
+        }
+        return item;
+    }
+
+    private static int[] demands(String[] fields, int from, BinPackingInstance previous) {
+        checkFields(fields, from + previous.dimensions);
+        int[] demands = new int[previous.dimensions];
+        for (int d = 0; d < demands.length; d++) {
+            demands[d] = Integer.parseInt(fields[from + d]);
+        }
+        return demands;
+    }
+
+    private static void checkFields(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("expected " + (count - 1) + " values after " + fields[0]);
+        }
+    }
+
+    boolean isResized(int item) {
+        return resized.containsKey(item);
+    }
+
+    // itemMap()[item] = index in the new instance of an item of the previous one, -1 if it was removed
+    int[] itemMap() {
+        int[] map = new int[removed.length];
+        int next = 0;
+        for (int item = 0; item < removed.length; item++) {
+            map[item] = removed[item] ? -1 : next++;
+        }
+        return map;
+    }
+
+    public BinPackingInstance apply(BinPackingInstance previous) {
+        int[] map = itemMap();
+        int kept = 0;
+        for (boolean gone : removed) {
+            kept += gone ? 0 : 1;
+        }
+        int[][] demands = new int[previous.dimensions][kept + added.size()];
+        for (int item = 0; item < previous.items; item++) {
+            if (map[item] >= 0) {
+                int[] resize = resized.get(item);
+                for (int d = 0; d < previous.dimensions; d++) {
+                    demands[d][map[item]] = resize == null ? previous.demands[d][item] : resize[d];
+                }
+            }
+        }
+        for (int k = 0; k < added.size(); k++) {
+            for (int d = 0; d < previous.dimensions; d++) {
+                demands[d][kept + k] = added.get(k)[d];
+            }
+        }
+        return new BinPackingInstance(demands, previous.capacities.clone());
+    }
+}
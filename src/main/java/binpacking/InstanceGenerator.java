@@ -0,0 +1,121 @@
+package binpacking;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+/*
+ * Seeded random instances for testing and for the scaling runs (see ScalingHarness), in the classic
+ * distributions of the bin packing literature and one modelled on virtual machine placement:
+ *  - UNIFORM: weights uniform in [1, 100], capacity 120 (Scholl, Klein and Juergens' first data set);
+ *  - FALKENAUER: weights uniform in [20, 100], capacity 150 (Falkenauer's "u" class, as input.txt);
+ *  - TRIPLET: capacity 1000, items in triplets that fill a bin exactly, the first in [380, 490], the second in
+ *    [250, (1000 - first) / 2] and the third what is left (Falkenauer's "t" class): the optimum is items / 3
+ *    bins, and no bin holds more than three items. When items is not a multiple of 3 the last triplet is cut;
+ *  - VM: two dimensions (vCPUs, GiB of memory) on hosts of 64 vCPUs and 256 GiB, drawn from a catalogue of
+ *    general, compute and memory optimized flavours, small ones far more often than large ones, as in the
+ *    published traces of public clouds.
+ * The same distribution, item count and seed always give the same instance.
+ *
+ * Writing an instance: java binpacking.InstanceGenerator <distribution> <items> <output> [seed]
+ * (binary when the output ends with .bin, text otherwise, see InstanceLoader)
+ */
+public class InstanceGenerator {
+
+    public enum Distribution { UNIFORM, FALKENAUER, TRIPLET, VM }
+
+    static final int[] VM_HOST = {64, 256};
+    // Flavours (vCPUs, GiB) and their relative frequencies
+    static final int[][] VM_FLAVOURS = {
+            {1, 1}, {1, 2}, {1, 4}, {2, 4}, {2, 8}, {2, 16}, {4, 8}, {4, 16}, {4, 32},
+            {8, 16}, {8, 32}, {8, 64}, {16, 32}, {16, 64}, {32, 128}};
+    static final int[] VM_FREQUENCIES = {8, 14, 10, 16, 14, 4, 8, 8, 3, 4, 4, 2, 2, 2, 1};
+
+    public static BinPackingInstance generate(Distribution distribution, int items, long seed) {
+        Random random = new Random(seed);
+        switch (distribution) {
+            case UNIFORM:
+                return uniform(random, items, 1, 100, 120);
+            case FALKENAUER:
+                return uniform(random, items, 20, 100, 150);
+            case TRIPLET:
+                return triplets(random, items);
+            default:
+                return virtualMachines(random, items);
+        }
+    }
+
+    static BinPackingInstance uniform(Random random, int items, int min, int max, int capacity) {
+        int[] weights = new int[items];
+        for (int i = 0; i < items; i++) {
+            weights[i] = min + random.nextInt(max - min + 1);
+        }
+        return new BinPackingInstance(weights, capacity);
+    }
+
+    static BinPackingInstance triplets(Random random, int items) {
+        int[] weights = new int[items];
+        int[] triplet = new int[3];
+        for (int i = 0; i < items; i += 3) {
+            triplet[0] = 380 + random.nextInt(111);
+            triplet[1] = 250 + random.nextInt((1000 - triplet[0]) / 2 - 250 + 1);
+            triplet[2] = 1000 - triplet[0] - triplet[1];
+            System.arraycopy(triplet, 0, weights, i, Math.min(3, items - i));
+        }
+        for (int i = items - 1; i > 0; i--) { // in order, the triplets would give the answer away
+            int j = random.nextInt(i + 1);
+            int weight = weights[i];
+            weights[i] = weights[j];
+            weights[j] = weight;
+        }
+        return new BinPackingInstance(weights, 1000);
+    }
+
+    static BinPackingInstance virtualMachines(Random random, int items) {
+        int total = 0;
+        for (int frequency : VM_FREQUENCIES) {
+            total += frequency;
+        }
+        int[][] demands = new int[VM_HOST.length][items];
+        for (int i = 0; i < items; i++) {
+            int r = random.nextInt(total);
+            int flavour = 0;
+            while ((r -= VM_FREQUENCIES[flavour]) >= 0) {
+                flavour++;
+            }
+            for (int d = 0; d < VM_HOST.length; d++) {
+                demands[d][i] = VM_FLAVOURS[flavour][d];
+            }
+        }
+        return new BinPackingInstance(demands, VM_HOST.clone());
+    }
+
+    static Distribution distributionNamed(String name) {
+        try {
+            return Distribution.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown distribution " + name
+                    + ", expected uniform, falkenauer, triplet or vm");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: InstanceGenerator <uniform | falkenauer | triplet | vm> <items> <output>"
+                    + " [seed]");
+            System.exit(1);
+        }
+        Distribution distribution = distributionNamed(args[0]);
+        int items = Integer.parseInt(args[1]);
+        BinPackingInstance instance = generate(distribution, items, args.length > 3 ? Long.parseLong(args[3]) : 42);
+        Path path = Paths.get(args[2]);
+        if (args[2].endsWith(".bin")) {
+            InstanceLoader.writeBinary(path, instance);
+        } else {
+            InstanceLoader.writeText(path, instance);
+        }
+        System.out.println("Wrote " + items + " " + distribution.name().toLowerCase(Locale.ROOT) + " items to " + path);
+    }
+}
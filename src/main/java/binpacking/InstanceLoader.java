@@ -0,0 +1,276 @@
+package binpacking;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Loads instances for all the solvers, in one of two formats:
+ *  - text: the item count, the bin capacity, then one weight per item, separated by any whitespace. Vector
+ *    instances start with the word "vector", then the item count, the number of dimensions d, the d
+ *    capacities and d demands per item;
+ *  - binary: the magic "BPI1", the item count and the capacity, then the weights, all little-endian ints;
+ *    vector instances use "BPI2", the item count, d, the d capacities, then the demands dimension by dimension.
+ * Files are read through memory-mapped windows, so instances larger than 2 GB are supported, and text is
+ * parsed byte by byte straight into the demand arrays without creating Strings.
+ *
+ * Converting a text instance to the binary format: java binpacking.InstanceLoader input.txt input.bin
+ */
+public class InstanceLoader {
+
+    static final int MAGIC = 0x31495042;        // "BPI1" read as a little-endian int
+    static final int VECTOR_MAGIC = 0x32495042; // "BPI2"
+    static final int HEADER_BYTES = 12;
+    static final String VECTOR_KEYWORD = "vector";
+    static final long WINDOW_BYTES = 1L << 30;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: InstanceLoader <text instance> <binary output>");
+            System.exit(1);
+        }
+        BinPackingInstance instance = load(args[0]);
+        writeBinary(Paths.get(args[1]), instance);
+        System.out.println("Wrote " + instance.items + " items to " + args[1]);
+    }
+
+    public static BinPackingInstance load(String path) throws IOException {
+        return load(Paths.get(path));
+    }
+
+    // Detects the format from the first four bytes
+    public static BinPackingInstance load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= HEADER_BYTES) {
+                ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                if (header.getInt(0) == MAGIC) {
+                    return readBinary(channel, header, path);
+                }
+                if (header.getInt(0) == VECTOR_MAGIC) {
+                    return readVectorBinary(channel, header, path);
+                }
+            }
+            return readText(channel, path);
+        }
+    }
+
+    static BinPackingInstance readBinary(FileChannel channel, ByteBuffer header, Path path) throws IOException {
+        int count = header.getInt(4);
+        int capacity = header.getInt(8);
+        if (count < 0 || channel.size() != HEADER_BYTES + 4L * count) {
+            throw new IOException(path + ": header declares " + count + " items but the file holds "
+                    + (channel.size() - HEADER_BYTES) / 4);
+        }
+        int[] weights = new int[count];
+        readInts(channel, HEADER_BYTES, weights);
+        return new BinPackingInstance(weights, capacity);
+    }
+
+    static BinPackingInstance readVectorBinary(FileChannel channel, ByteBuffer header, Path path) throws IOException {
+        int count = header.getInt(4);
+        int dimensions = header.getInt(8);
+        long offset = HEADER_BYTES + 4L * dimensions;
+        if (count < 0 || dimensions < 1 || channel.size() != offset + 4L * count * dimensions) {
+            throw new IOException(path + ": header declares " + count + " items of " + dimensions
+                    + " dimensions but the file size does not match");
+        }
+        int[] capacities = new int[dimensions];
+        readInts(channel, HEADER_BYTES, capacities);
+        int[][] demands = new int[dimensions][count];
+        for (int d = 0; d < dimensions; d++) {
+            readInts(channel, offset + 4L * count * d, demands[d]);
+        }
+        return new BinPackingInstance(demands, capacities);
+    }
+
+    private static void readInts(FileChannel channel, long position, int[] values) throws IOException {
+        int read = 0;
+        while (read < values.length) {
+            int chunk = (int) Math.min(values.length - read, WINDOW_BYTES / 4);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position + 4L * read, 4L * chunk);
+            window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values, read, chunk);
+            read += chunk;
+        }
+    }
+
+    /*
+     * Parses non-negative decimal integers, after the vector keyword if the file starts with it. The parser
+     * state (current value, whether a number is in progress) is kept across windows, so a number split between
+     * two windows is read correctly.
+     */
+    static BinPackingInstance readText(FileChannel channel, Path path) throws IOException {
+        long size = channel.size();
+        boolean vector = startsWithVectorKeyword(channel);
+        TextInstance instance = new TextInstance(path, vector);
+        long value = 0;
+        boolean inNumber = false;
+        for (long position = 0; position < size; position += WINDOW_BYTES) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(WINDOW_BYTES, size - position));
+            int limit = window.limit();
+            for (int i = position == 0 && vector ? VECTOR_KEYWORD.length() : 0; i < limit; i++) {
+                byte b = window.get(i);
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    if (value > Integer.MAX_VALUE) {
+                        throw new IOException(path + ": number too large at byte " + (position + i));
+                    }
+                    inNumber = true;
+                } else if (isWhitespace(b)) {
+                    if (inNumber) {
+                        instance.accept((int) value);
+                        value = 0;
+                        inNumber = false;
+                    }
+                } else {
+                    throw new IOException(path + ": unexpected character '" + (char) b + "' at byte " + (position + i));
+                }
+            }
+        }
+        if (inNumber) {
+            instance.accept((int) value);
+        }
+        return instance.build();
+    }
+
+    // Does the file start with the vector keyword, followed by whitespace?
+    private static boolean startsWithVectorKeyword(FileChannel channel) throws IOException {
+        int length = VECTOR_KEYWORD.length();
+        if (channel.size() <= length) {
+            return false;
+        }
+        MappedByteBuffer start = channel.map(FileChannel.MapMode.READ_ONLY, 0, length + 1);
+        for (int i = 0; i < length; i++) {
+            if (start.get(i) != VECTOR_KEYWORD.charAt(i)) {
+                return false;
+            }
+        }
+        return isWhitespace(start.get(length));
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    // Receives the numbers of a text instance one by one and stores them where they belong
+    private static class TextInstance {
+        final Path path;
+        final boolean vector;
+        int count = -1;
+        int dimensions = -1;
+        int[] capacities;
+        int capacitiesRead;
+        int[][] demands;
+        long demandsRead;
+
+        TextInstance(Path path, boolean vector) {
+            this.path = path;
+            this.vector = vector;
+        }
+
+        void accept(int value) throws IOException {
+            if (count < 0) {
+                count = value;
+            } else if (dimensions < 0) {
+                // the second number is the number of dimensions of a vector instance, otherwise the capacity
+                dimensions = vector ? value : 1;
+                if (dimensions < 1) {
+                    throw new IOException(path + ": header declares " + dimensions + " dimensions");
+                }
+                capacities = new int[dimensions];
+                if (!vector) {
+                    capacities[capacitiesRead++] = value;
+                }
+            } else if (capacitiesRead < dimensions) {
+                capacities[capacitiesRead++] = value;
+            } else {
+                if (demands == null) {
+                    demands = new int[dimensions][count];
+                }
+                if (demandsRead == (long) count * dimensions) {
+                    throw new IOException(path + ": header declares " + count + " items but the file holds more");
+                }
+                demands[(int) (demandsRead % dimensions)][(int) (demandsRead / dimensions)] = value;
+                demandsRead++;
+            }
+        }
+
+        BinPackingInstance build() throws IOException {
+            if (dimensions < 0 || capacitiesRead < dimensions) {
+                throw new IOException(path + ": missing item count or capacity");
+            }
+            if (demandsRead != (long) count * dimensions) {
+                throw new IOException(path + ": header declares " + count + " items but the file holds "
+                        + demandsRead / dimensions);
+            }
+            return new BinPackingInstance(demands == null ? new int[dimensions][0] : demands, capacities);
+        }
+    }
+
+    // Text format as read by readText: one weight per line, or the d demands of one item per line after the keyword
+    public static void writeText(Path path, BinPackingInstance instance) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            if (instance.dimensions == 1) {
+                writer.write(instance.items + "\n" + instance.capacity + "\n");
+            } else {
+                writer.write(VECTOR_KEYWORD + " " + instance.items + " " + instance.dimensions + "\n");
+                for (int d = 0; d < instance.dimensions; d++) {
+                    writer.write((d == 0 ? "" : " ") + instance.capacities[d]);
+                }
+                writer.write("\n");
+            }
+            for (int item = 0; item < instance.items; item++) {
+                for (int d = 0; d < instance.dimensions; d++) {
+                    writer.write((d == 0 ? "" : " ") + instance.demands[d][item]);
+                }
+                writer.write("\n");
+            }
+        }
+    }
+
+    public static void writeBinary(Path path, BinPackingInstance instance) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            if (instance.dimensions == 1) {
+                buffer.putInt(MAGIC).putInt(instance.items).putInt(instance.capacity);
+            } else {
+                buffer.putInt(VECTOR_MAGIC).putInt(instance.items).putInt(instance.dimensions);
+                for (int capacity : instance.capacities) {
+                    put(channel, buffer, capacity);
+                }
+            }
+            for (int[] demands : instance.demands) {
+                for (int demand : demands) {
+                    put(channel, buffer, demand);
+                }
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void put(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < 4) {
+            drain(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
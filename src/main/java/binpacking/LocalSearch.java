@@ -0,0 +1,530 @@
+package binpacking;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Local search on a packing, the improvement step of every solver: the GA runs it on its offspring, the PSO on
+ * each position after a move and the colony on each ant's packing (a memetic step each time). It is a variable
+ * neighbourhood descent around a target bin, one of the least filled, whose items it tries to move out with, in
+ * this order:
+ *  - empty-bin elimination: all the items of the target into other bins, each in the tightest one it fits in;
+ *  - shift: one item of the target into another bin;
+ *  - swap: one item of the target against one of another bin;
+ *  - 2-1 swap: two items of the target against one of another bin;
+ *  - 2-2 swap: two items of the target against two of another bin.
+ * The first move that improves the packing is made and the descent starts over from the first neighbourhood;
+ * when none improves, the target becomes tabu for TABU_TENURE targets and the next one is drawn.
+ *
+ * When the objective ranks packings by bin count first, a move improves the packing when it raises the sum of
+ * the squared loads: fuller bins next to emptier ones, the way to an empty target. Its cost is not looked at on
+ * the way, since emptying a bin first makes it an underfilled one, which BinFitness charges; instead, a descent
+ * that ends without emptying its target is undone unless the cost went down, or stayed and the bins got fuller.
+ * Under the other objectives a move improves the packing when it lowers the cost, or keeps it and raises the
+ * sum of the squared loads. Either way a call never makes a packing worse, and a descent cannot cycle.
+ *
+ * The search works in place on the solver's assignment and loads, with the items of each bin as linked lists and
+ * the bins bucketed by room (see ResidualBuckets): a move is evaluated in O(dimensions) from the two bins it
+ * touches, and its other bin comes from the buckets, tightest first, CANDIDATE_BINS at most. A call stops after
+ * the given number of move evaluations. Bins emptied on the way are replaced by the last ones at the end, so
+ * that bins stay numbered from 0. With item costs (see Objective.hasItemCosts) new numbers change the cost: the
+ * packing is then aligned again (see Objective.align) and re-scored, and put back as it was before the call if
+ * it ends up worse.
+ *
+ * A LocalSearch keeps its buffers between calls: one per thread.
+ */
+final class LocalSearch {
+    static final int CANDIDATE_BINS = 32;
+    static final int TABU_TENURE = 8;
+    static final int TARGET_SAMPLE = 4; // the target is the least filled of that many bins drawn at random
+
+    BinPackingInstance instance;
+    Objective objective;
+    long moves;                     // move evaluations per call
+    private boolean itemCosts;
+    private boolean binsFirst;
+    private int[] heads;            // first item of each bin, -1 for an empty bin
+    private int[] counts;           // items in each bin
+    private int[] next;             // next item of the same bin, -1 for the last
+    private int[] previous;
+    private int[] tabuUntil;        // target number up to which each bin cannot be a target
+    private final ResidualBuckets buckets;
+    private final int[] moving = new int[4]; // items of a move: [0, 2) leave the target, [2, 4) enter it
+    private int[] deltas;           // demand a move takes out of the target, per dimension
+    private int[] undoItems = new int[64]; // items moved in the current descent, and the bins they came from
+    private int[] undoBins = new int[64];
+    private int undoLength;
+    private long gained;            // sum of the squared loads gained in the current descent
+    private int[] assignment;
+    private int[] loads;
+    private int[] savedAssignment; // the packing before the call, kept with item costs only
+    private int[] savedLoads;
+    private int startBinCount;
+    private int startCost;
+    private long budget;
+    int binCount;
+    int cost;
+    long evaluated;                 // moves evaluated by all the calls
+
+    LocalSearch(BinPackingInstance instance, Objective objective, long moves) {
+        this.buckets = new ResidualBuckets(instance);
+        reset(instance, objective, moves);
+    }
+
+    // Makes this the local search of another instance, growing the arrays only if it has more items or dimensions
+    void reset(BinPackingInstance instance, Objective objective, long moves) {
+        this.instance = instance;
+        this.objective = objective;
+        this.moves = moves;
+        this.itemCosts = objective.hasItemCosts();
+        this.binsFirst = objective.binsFirst();
+        if (heads == null || heads.length < instance.items) {
+            heads = new int[instance.items];
+            counts = new int[instance.items];
+            next = new int[instance.items];
+            previous = new int[instance.items];
+            tabuUntil = new int[instance.items];
+        }
+        if (deltas == null || deltas.length < instance.dimensions) {
+            deltas = new int[instance.dimensions];
+        }
+        if (itemCosts && (savedAssignment == null || savedAssignment.length < instance.items)) {
+            savedAssignment = new int[instance.items];
+        }
+        if (itemCosts && (savedLoads == null || savedLoads.length < instance.dimensions * instance.items)) {
+            savedLoads = instance.newLoads();
+        }
+        buckets.reset(instance);
+    }
+
+    // null when config.localSearchMoves is 0: no local search
+    static LocalSearch of(BinPackingInstance instance, Objective objective, SolverConfig config) {
+        return of(null, instance, objective, config);
+    }
+
+    // Same, reusing spare (which can be null) rather than allocating a new local search when there is one
+    static LocalSearch of(LocalSearch spare, BinPackingInstance instance, Objective objective, SolverConfig config) {
+        if (config.localSearchMoves <= 0) {
+            return null;
+        }
+        if (spare == null) {
+            return new LocalSearch(instance, objective, config.localSearchMoves);
+        }
+        spare.reset(instance, objective, config.localSearchMoves);
+        return spare;
+    }
+
+    // Move evaluations per call from the binpacking.localsearch system property, 0 (no local search) by default
+    static int movesFromSystemProperties() {
+        return Integer.getInteger("binpacking.localsearch", 0);
+    }
+
+    /*
+     * Improves the packing in place. cost is its cost under the objective; the new bin count is returned, and
+     * the new cost is left in cost.
+     */
+    int improve(int[] assignment, int[] loads, int binCount, int cost, Random random) {
+        this.assignment = assignment;
+        this.loads = loads;
+        this.binCount = binCount;
+        this.cost = cost;
+        this.budget = evaluated + moves;
+        if (itemCosts) {
+            startBinCount = binCount;
+            startCost = cost;
+            System.arraycopy(assignment, 0, savedAssignment, 0, instance.items);
+            for (int d = 0, offset = 0; d < instance.dimensions; d++, offset += instance.items) {
+                System.arraycopy(loads, offset, savedLoads, offset, binCount);
+            }
+        }
+        Arrays.fill(heads, 0, binCount, -1);
+        Arrays.fill(counts, 0, binCount, 0);
+        Arrays.fill(tabuUntil, 0, binCount, 0);
+        for (int item = instance.items - 1; item >= 0; item--) {
+            link(item, assignment[item]);
+        }
+        buckets.clear();
+        for (int bin = 0; bin < binCount; bin++) {
+            if (counts[bin] > 0) {
+                buckets.put(bin, room(bin));
+            }
+        }
+        for (int target = 1; evaluated < budget; target++) {
+            int bin = pickTarget(target, random);
+            if (bin >= 0) {
+                descend(bin);
+                tabuUntil[bin] = target + TABU_TENURE;
+            }
+        }
+        compact();
+        return this.binCount;
+    }
+
+    // The least filled of TARGET_SAMPLE bins drawn at random, leaving out empty and tabu bins; -1 if all were
+    private int pickTarget(int target, Random random) {
+        int best = -1;
+        double bestFill = 0;
+        for (int k = 0; k < TARGET_SAMPLE; k++) {
+            int bin = random.nextInt(binCount);
+            evaluated++;
+            if (counts[bin] > 0 && tabuUntil[bin] <= target) {
+                double fill = instance.fill(loads, bin, -1);
+                if (best < 0 || fill < bestFill) {
+                    best = bin;
+                    bestFill = fill;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void descend(int target) {
+        int startCost = cost;
+        gained = 0;
+        undoLength = 0;
+        int neighbourhood = 0;
+        while (neighbourhood < 5 && counts[target] > 0 && evaluated < budget) {
+            boolean improved;
+            switch (neighbourhood) {
+                case 0:
+                    improved = eliminate(target);
+                    break;
+                case 1:
+                    improved = shift(target);
+                    break;
+                case 2:
+                    improved = swap(target, 1, 1);
+                    break;
+                case 3:
+                    improved = swap(target, 2, 1);
+                    break;
+                default:
+                    improved = swap(target, 2, 2);
+            }
+            neighbourhood = improved ? 0 : neighbourhood + 1;
+        }
+        boolean emptied = binsFirst && counts[target] == 0;
+        if (!emptied && (cost > startCost || (cost == startCost && gained <= 0))) {
+            undo(0);
+            cost = startCost;
+        }
+    }
+
+    // Moves back the items moved since the undo log had the given length, last moved first
+    private void undo(int length) {
+        for (int k = undoLength - 1; k >= length; k--) {
+            int item = undoItems[k];
+            int from = assignment[item];
+            instance.remove(loads, from, item);
+            instance.add(loads, undoBins[k], item);
+            relink(item, undoBins[k]);
+            update(from);
+            update(undoBins[k]);
+        }
+        undoLength = length;
+    }
+
+    /*
+     * Moves every item of the target into the tightest other bin where it fits, and keeps the result if it
+     * improves the packing; otherwise (or when an item fits nowhere) moves them back, last moved first.
+     */
+    private boolean eliminate(int target) {
+        int mark = undoLength;
+        int change = 0;
+        long gain = 0;
+        boolean placed = true;
+        while (heads[target] >= 0) {
+            int item = heads[target];
+            int bin = tightest(item, target);
+            if (bin < 0) {
+                placed = false;
+                break;
+            }
+            gain += fillGain(target, bin, item);
+            change += shiftCost(item, target, bin);
+        }
+        if (placed && (binsFirst || change < 0 || (change == 0 && gain > 0))) {
+            cost += change;
+            gained += gain;
+            return true;
+        }
+        undo(mark);
+        return false;
+    }
+
+    private boolean shift(int target) {
+        for (int item = heads[target]; item >= 0; item = next[item]) {
+            moving[0] = item;
+            int examined = 0;
+            for (int bucket = buckets.bucket(instance.weights[item]); bucket < buckets.heads.length; bucket++) {
+                for (int bin = buckets.heads[bucket]; bin >= 0; bin = buckets.next[bin]) {
+                    if (bin != target && tryMove(target, bin, 1, 0)) {
+                        return true;
+                    }
+                    if (++examined == CANDIDATE_BINS || evaluated >= budget) {
+                        break;
+                    }
+                }
+                if (examined == CANDIDATE_BINS || evaluated >= budget) {
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * out items of the target against in items of another bin. The other bin has to take the difference, so
+     * the bins are walked up from those with room 1.
+     */
+    private boolean swap(int target, int out, int in) {
+        for (int first = heads[target]; first >= 0; first = next[first]) {
+            for (int second = out == 1 ? first : next[first]; second >= 0; second = next[second]) {
+                moving[0] = first;
+                moving[1] = second;
+                int examined = 0;
+                for (int bucket = buckets.bucket(1); bucket < buckets.heads.length; bucket++) {
+                    for (int bin = buckets.heads[bucket]; bin >= 0; bin = buckets.next[bin]) {
+                        if (bin != target && counts[bin] >= in && swapWith(target, bin, out, in)) {
+                            return true;
+                        }
+                        if (++examined == CANDIDATE_BINS || evaluated >= budget) {
+                            break;
+                        }
+                    }
+                    if (examined == CANDIDATE_BINS || evaluated >= budget) {
+                        break;
+                    }
+                }
+                if (out == 1) {
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    // The items of moving[0, out) against every choice of in items of bin
+    private boolean swapWith(int target, int bin, int out, int in) {
+        for (int first = heads[bin]; first >= 0; first = next[first]) {
+            moving[2] = first;
+            if (in == 1) {
+                if (tryMove(target, bin, out, 1)) {
+                    return true;
+                }
+                continue;
+            }
+            for (int second = next[first]; second >= 0; second = next[second]) {
+                moving[3] = second;
+                if (tryMove(target, bin, out, 2)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Moves moving[0, out) from the target to bin and moving[2, 2 + in) from bin to the target if both stay within
+     * capacity and the packing improves.
+     */
+    private boolean tryMove(int target, int bin, int out, int in) {
+        evaluated++;
+        int items = instance.items;
+        for (int d = 0, offset = 0; d < instance.dimensions; d++, offset += items) {
+            int[] demands = instance.demands[d];
+            int delta = demands[moving[0]] + (out == 2 ? demands[moving[1]] : 0);
+            if (in > 0) {
+                delta -= demands[moving[2]] + (in == 2 ? demands[moving[3]] : 0);
+            }
+            if (loads[offset + bin] + delta > instance.capacities[d]
+                    || loads[offset + target] - delta > instance.capacities[d]) {
+                return false;
+            }
+            deltas[d] = delta;
+        }
+        long gain = 0;
+        for (int d = 0, offset = 0; d < instance.dimensions; d++, offset += items) {
+            long delta = deltas[d];
+            gain += 2 * delta * (delta + loads[offset + bin] - loads[offset + target]);
+        }
+        if (binsFirst && gain <= 0) {
+            return false;
+        }
+        int before = objective.binCost(instance, loads, target) + objective.binCost(instance, loads, bin);
+        if (itemCosts) {
+            before += itemCosts(out, target, in, bin);
+        }
+        for (int d = 0, offset = 0; d < instance.dimensions; d++, offset += items) {
+            loads[offset + target] -= deltas[d];
+            loads[offset + bin] += deltas[d];
+        }
+        int after = objective.binCost(instance, loads, target) + objective.binCost(instance, loads, bin);
+        if (itemCosts) {
+            after += itemCosts(out, bin, in, target);
+        }
+        if (binsFirst || after < before || (after == before && gain > 0)) {
+            for (int k = 0; k < out; k++) {
+                relink(moving[k], bin);
+            }
+            for (int k = 0; k < in; k++) {
+                relink(moving[2 + k], target);
+            }
+            update(target);
+            update(bin);
+            cost += after - before;
+            gained += gain;
+            return true;
+        }
+        for (int d = 0, offset = 0; d < instance.dimensions; d++, offset += items) {
+            loads[offset + target] += deltas[d];
+            loads[offset + bin] -= deltas[d];
+        }
+        return false;
+    }
+
+    // Item costs of the moving items, the leaving ones in bin out and the entering ones in bin in
+    private int itemCosts(int out, int outBin, int in, int inBin) {
+        int total = 0;
+        for (int k = 0; k < out; k++) {
+            total += objective.itemCost(moving[k], outBin);
+        }
+        for (int k = 0; k < in; k++) {
+            total += objective.itemCost(moving[2 + k], inBin);
+        }
+        return total;
+    }
+
+    // The bin with the least room where the item fits, other than bin, within CANDIDATE_BINS bins; -1 if none
+    private int tightest(int item, int bin) {
+        int examined = 0;
+        for (int bucket = buckets.bucket(instance.weights[item]); bucket < buckets.heads.length; bucket++) {
+            for (int other = buckets.heads[bucket]; other >= 0; other = buckets.next[other]) {
+                evaluated++;
+                if (other != bin && instance.fits(loads, other, item)) {
+                    return other;
+                }
+                if (++examined == CANDIDATE_BINS) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Change of the sum of the squared loads if item moved from bin from to bin to
+    private long fillGain(int from, int to, int item) {
+        long gain = 0;
+        for (int d = 0, offset = 0; d < instance.dimensions; d++, offset += instance.items) {
+            long demand = instance.demands[d][item];
+            gain += 2 * demand * (demand + loads[offset + to] - loads[offset + from]);
+        }
+        return gain;
+    }
+
+    // Moves item from bin from to bin to, whatever it costs, and returns the change of cost
+    private int shiftCost(int item, int from, int to) {
+        int before = objective.binCost(instance, loads, from) + objective.binCost(instance, loads, to);
+        if (itemCosts) {
+            before += objective.itemCost(item, from);
+        }
+        instance.remove(loads, from, item);
+        instance.add(loads, to, item);
+        relink(item, to);
+        update(from);
+        update(to);
+        int after = objective.binCost(instance, loads, from) + objective.binCost(instance, loads, to);
+        if (itemCosts) {
+            after += objective.itemCost(item, to);
+        }
+        return after - before;
+    }
+
+    private int room(int bin) {
+        return instance.capacity - loads[bin];
+    }
+
+    // Moves the bin to the bucket of its room, or out of the buckets once empty
+    private void update(int bin) {
+        if (counts[bin] == 0) {
+            buckets.remove(bin);
+        } else {
+            buckets.put(bin, room(bin));
+        }
+    }
+
+    private void link(int item, int bin) {
+        next[item] = heads[bin];
+        previous[item] = -1;
+        if (heads[bin] >= 0) {
+            previous[heads[bin]] = item;
+        }
+        heads[bin] = item;
+        counts[bin]++;
+        assignment[item] = bin;
+    }
+
+    // Moves item from its bin to bin in the lists, and logs the move for undo
+    private void relink(int item, int bin) {
+        int from = assignment[item];
+        if (undoLength == undoItems.length) {
+            undoItems = Arrays.copyOf(undoItems, 2 * undoLength);
+            undoBins = Arrays.copyOf(undoBins, 2 * undoLength);
+        }
+        undoItems[undoLength] = item;
+        undoBins[undoLength++] = from;
+        if (previous[item] >= 0) {
+            next[previous[item]] = next[item];
+        } else {
+            heads[from] = next[item];
+        }
+        if (next[item] >= 0) {
+            previous[next[item]] = previous[item];
+        }
+        counts[from]--;
+        link(item, bin);
+    }
+
+    // Fills the emptied bins with the last ones, so that the bins are numbered from 0 again
+    private void compact() {
+        int bins = binCount;
+        boolean renumbered = false;
+        for (int bin = 0; bin < bins; bin++) {
+            if (counts[bin] > 0) {
+                continue;
+            }
+            do {
+                bins--;
+            } while (bins > bin && counts[bins] == 0);
+            if (bins > bin) {
+                for (int item = heads[bins]; item >= 0; item = next[item]) {
+                    assignment[item] = bin;
+                }
+                heads[bin] = heads[bins];
+                counts[bin] = counts[bins];
+                counts[bins] = 0;
+                instance.moveLoads(loads, bins, bin);
+                instance.clearLoads(loads, bins);
+                renumbered = true;
+            }
+        }
+        binCount = bins;
+        if (itemCosts && renumbered) {
+            objective.align(instance, assignment, loads, binCount);
+            cost = objective.score(instance, loads, binCount, assignment);
+            if (objective.isBetter(startBinCount, startCost, binCount, cost)) {
+                restore();
+            }
+        }
+    }
+
+    // Puts the packing back as it was before the call
+    private void restore() {
+        System.arraycopy(savedAssignment, 0, assignment, 0, instance.items);
+        for (int d = 0, offset = 0; d < instance.dimensions; d++, offset += instance.items) {
+            System.arraycopy(savedLoads, offset, loads, offset, startBinCount);
+        }
+        binCount = startBinCount;
+        cost = startCost;
+    }
+}
@@ -0,0 +1,82 @@
+package binpacking;
+
+import java.util.Arrays;
+
+/*
+ * Lower bounds on the number of bins (Martello and Toth). L1 is the total demand over the capacity; L2 also
+ * counts the items that cannot share a bin. With several dimensions every dimension alone is a relaxation of
+ * the instance, so the bound is the largest one-dimensional bound.
+ */
+public class LowerBounds {
+
+    public static int l1(BinPackingInstance instance) {
+        int bound = 0;
+        for (int d = 0; d < instance.dimensions; d++) {
+            bound = Math.max(bound, l1(instance.demands[d], instance.capacities[d]));
+        }
+        return bound;
+    }
+
+    public static int l2(BinPackingInstance instance) {
+        int bound = 0;
+        for (int d = 0; d < instance.dimensions; d++) {
+            bound = Math.max(bound, l2(instance.demands[d], instance.capacities[d]));
+        }
+        return bound;
+    }
+
+    static int l1(int[] weights, int capacity) {
+        long total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        return (int) ((total + capacity - 1) / capacity);
+    }
+
+    /*
+     * L2 = max over K in [0, C/2] of |J1| + |J2| + max(0, ceil((w(J3) - (|J2| C - w(J2))) / C)) with
+     * J1 = {w > C - K}, J2 = {C/2 < w <= C - K} and J3 = {K <= w <= C/2}. Only K = 0 and the weights up to
+     * C/2 need to be tried; on sorted weights with prefix sums each K costs two binary searches.
+     */
+    static int l2(int[] weights, int capacity) {
+        int[] sorted = weights.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        long[] prefix = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            prefix[i + 1] = prefix[i] + sorted[i];
+        }
+        int half = capacity / 2;
+        int halfEnd = upperBound(sorted, half); // items [0, halfEnd) have w <= C/2
+        int bound = l1(weights, capacity);
+        for (int i = -1; i < halfEnd; i++) {
+            int k = i < 0 ? 0 : sorted[i];
+            if (i > 0 && k == sorted[i - 1]) {
+                continue;
+            }
+            int j3Start = i < 0 ? 0 : i;
+            int j2End = upperBound(sorted, capacity - k);
+            long j2Count = j2End - halfEnd;
+            long j2Room = j2Count * capacity - (prefix[j2End] - prefix[halfEnd]);
+            long j3Weight = prefix[halfEnd] - prefix[j3Start];
+            long bins = (n - j2End) + j2Count + Math.max(0, (j3Weight - j2Room + capacity - 1) / capacity);
+            bound = (int) Math.max(bound, bins);
+        }
+        return bound;
+    }
+
+    // First index whose value is greater than value
+    private static int upperBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
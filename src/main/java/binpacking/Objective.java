@@ -0,0 +1,538 @@
+package binpacking;
+
+import java.util.Arrays;
+
+/*
+ * What the solvers minimize. A cost is a sum of per-bin terms, functions of the loads of the bin (an empty bin
+ * costs nothing), and of per-item terms, functions of the item and of its bin. Moving items only changes the
+ * terms of the bins and items involved, so a move is evaluated in O(1) (see BinPackingGeneticAlgorithm.mutate),
+ * and a full evaluation is one pass over the bins, plus one over the items when there are item terms. The terms
+ * of the placement objectives are looked up in tables computed once, so they cost about what BinFitness does.
+ *
+ * BIN_COUNT is BinFitness, the fitness the solvers have always used. Its packings are ranked by bin count
+ * first, so reaching the lower bound ends the search. The placement objectives rank packings by cost alone
+ * and run to the end of the budget:
+ *  - power: a server power model, an active host drawing its idle power plus a power that grows with the load
+ *    of the first dimension (CPU), linearly or along a measured curve, from a table indexed by the load;
+ *  - migrations: the cost of moving an item out of its bin of a previous placement (bin i being host i), from
+ *    a table per item, e.g. its memory size. The solvers number their bins in the order they build them, so
+ *    every packing they build is aligned first (see align): its bins take the numbers of the previous hosts
+ *    they share the most cost with;
+ *  - fragmentation: the resources stranded on hosts that no item fits in anymore (in every dimension, the room
+ *    left once one dimension has less room than any item needs), per mille of the capacity, from a table per
+ *    dimension;
+ *  - sum and weighted, to combine them.
+ * Objectives with tables belong to one instance. renumbered gives the objective of the same instance with its
+ * items renumbered (see BinPackingInstance.permute).
+ */
+public abstract class Objective {
+    public static final Objective BIN_COUNT = new BinCount();
+
+    // Power in watts at 0%, 10%, ..., 100% CPU load of an HP ProLiant ML110 G5 (SPECpower_ssj2008)
+    public static final int[] ML110_G5_WATTS = {94, 97, 101, 105, 110, 116, 121, 125, 129, 133, 135};
+
+    // Loads index the tables directly up to this capacity, and are scaled down to it above
+    static final int MAX_TABLE_STEPS = 4096;
+
+    // Cost of bin in the given loads (see BinPackingInstance), 0 if the bin is empty
+    public abstract int binCost(BinPackingInstance instance, int[] loads, int bin);
+
+    // Cost of the item being in bin
+    public int itemCost(int item, int bin) {
+        return 0;
+    }
+
+    public boolean hasItemCosts() {
+        return false;
+    }
+
+    /*
+     * Renumbers the bins of a freshly built packing in place (assignment and loads) so that its item costs do
+     * not depend on the order in which the solver opened its bins; returns true if a bin changed number. Bins
+     * keep numbers 0 to binCount - 1. Only migrations renumber, the other objectives do not look at numbers.
+     */
+    public boolean align(BinPackingInstance instance, int[] assignment, int[] loads, int binCount) {
+        return false;
+    }
+
+    // Ranking of packings: by bin count then cost (the lower bound on bins ends the search), or by cost alone
+    public boolean binsFirst() {
+        return false;
+    }
+
+    // The same objective for the instance whose item i is item order[i] of this objective's instance
+    public Objective renumbered(int[] order) {
+        return this;
+    }
+
+    public Objective weighted(int weight) {
+        return new Weighted(this, weight);
+    }
+
+    public static Objective sum(Objective... parts) {
+        return new Sum(parts);
+    }
+
+    /*
+     * Full evaluation of a packing. The objectives below override it with the same loop in their own final
+     * class, so that each loop calls a single binCost the JIT can inline, even when a Sum runs several of them.
+     */
+    public int score(BinPackingInstance instance, int[] loads, int binCount, int[] assignment) {
+        int score = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            score += binCost(instance, loads, bin);
+        }
+        if (hasItemCosts()) {
+            for (int item = 0; item < instance.items; item++) {
+                score += itemCost(item, assignment[item]);
+            }
+        }
+        return score;
+    }
+
+    public final int score(BinPackingInstance instance, int[] assignment, int binCount) {
+        int[] loads = instance.newLoads();
+        for (int item = 0; item < assignment.length; item++) {
+            instance.add(loads, assignment[item], item);
+        }
+        return score(instance, loads, binCount, assignment);
+    }
+
+    // Is a packing of binCount bins and cost better than one of otherBinCount bins and otherCost?
+    public final boolean isBetter(int binCount, int cost, int otherBinCount, int otherCost) {
+        if (binsFirst()) {
+            return binCount < otherBinCount || (binCount == otherBinCount && cost < otherCost);
+        }
+        return cost < otherCost || (cost == otherCost && binCount < otherBinCount);
+    }
+
+    // Linear power model: idleWatts for an active host, rising to maxWatts at full load
+    public static Objective power(BinPackingInstance instance, int idleWatts, int maxWatts) {
+        return power(instance, new int[] {idleWatts, maxWatts});
+    }
+
+    /*
+     * Power curve measured at evenly spaced loads: watts[0] at no load (idle), watts[watts.length - 1] at full
+     * load, interpolated linearly in between (SPECpower gives 11 points, see ML110_G5_WATTS). An overloaded host
+     * costs twice its full-load power.
+     */
+    public static Objective power(BinPackingInstance instance, int[] watts) {
+        return new Power(instance, watts);
+    }
+
+    // previousBins[item] is the bin of the item in the previous placement, -1 for an item that was not placed
+    public static Objective migrations(int[] previousBins, int[] costs) {
+        return new Migrations(previousBins.clone(), costs.clone());
+    }
+
+    // The same migration cost for every item
+    public static Objective migrations(int[] previousBins, int cost) {
+        int[] costs = new int[previousBins.length];
+        Arrays.fill(costs, cost);
+        return new Migrations(previousBins.clone(), costs);
+    }
+
+    public static Objective fragmentation(BinPackingInstance instance) {
+        return new Fragmentation(instance);
+    }
+
+    /*
+     * Objective of the main methods, from the system property binpacking.objective: bins (BIN_COUNT, the
+     * default), power (the ML110_G5_WATTS curve), fragmentation, or a sum of them, e.g. power+fragmentation.
+     */
+    public static Objective fromSystemProperties(BinPackingInstance instance) {
+        String[] names = System.getProperty("binpacking.objective", "bins").split("\\+");
+        Objective[] parts = new Objective[names.length];
+        for (int i = 0; i < names.length; i++) {
+            switch (names[i].trim()) {
+                case "bins":
+                    parts[i] = BIN_COUNT;
+                    break;
+                case "power":
+                    parts[i] = power(instance, ML110_G5_WATTS);
+                    break;
+                case "fragmentation":
+                    parts[i] = fragmentation(instance);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown objective: " + names[i]);
+            }
+        }
+        return parts.length == 1 ? parts[0] : sum(parts);
+    }
+
+    // Table index of a load between 0 and capacity
+    static int step(int load, int capacity, int steps) {
+        return steps == capacity ? load : (int) ((long) load * steps / capacity);
+    }
+
+    static boolean isEmpty(BinPackingInstance instance, int[] loads, int bin) {
+        for (int d = 0; d < instance.dimensions; d++) {
+            if (loads[d * instance.items + bin] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class BinCount extends Objective {
+        @Override
+        public int binCost(BinPackingInstance instance, int[] loads, int bin) {
+            return BinFitness.binScore(instance, loads, bin);
+        }
+
+        @Override
+        public int score(BinPackingInstance instance, int[] loads, int binCount, int[] assignment) {
+            int score = 0;
+            for (int bin = 0; bin < binCount; bin++) {
+                score += binCost(instance, loads, bin);
+            }
+            return score;
+        }
+
+        @Override
+        public boolean binsFirst() {
+            return true;
+        }
+    }
+
+    private static final class Power extends Objective {
+        private final int capacity;
+        private final int steps;
+        private final int[] watts;     // by table step of the load, then the overloaded power last
+
+        Power(BinPackingInstance instance, int[] curve) {
+            if (curve.length < 2) {
+                throw new IllegalArgumentException("a power curve needs the idle and full-load power");
+            }
+            capacity = instance.capacities[0];
+            steps = Math.min(capacity, MAX_TABLE_STEPS);
+            watts = new int[steps + 2];
+            int segments = curve.length - 1;
+            for (int step = 0; step <= steps; step++) {
+                double position = (double) step * segments / steps;
+                int k = Math.min((int) position, segments - 1);
+                watts[step] = (int) Math.round(curve[k] + (curve[k + 1] - curve[k]) * (position - k));
+            }
+            watts[steps + 1] = 2 * watts[steps];
+        }
+
+        @Override
+        public int binCost(BinPackingInstance instance, int[] loads, int bin) {
+            int load = loads[bin]; // first dimension
+            if (load == 0 && isEmpty(instance, loads, bin)) {
+                return 0;
+            }
+            return watts[load > capacity ? steps + 1 : step(load, capacity, steps)];
+        }
+
+        @Override
+        public int score(BinPackingInstance instance, int[] loads, int binCount, int[] assignment) {
+            int score = 0;
+            for (int bin = 0; bin < binCount; bin++) {
+                score += binCost(instance, loads, bin);
+            }
+            return score;
+        }
+    }
+
+    private static final class Migrations extends Objective {
+        private final int[] previousBins;
+        private final int[] costs;
+
+        Migrations(int[] previousBins, int[] costs) {
+            this.previousBins = previousBins;
+            this.costs = costs;
+        }
+
+        @Override
+        public int binCost(BinPackingInstance instance, int[] loads, int bin) {
+            return 0;
+        }
+
+        @Override
+        public int itemCost(int item, int bin) {
+            int previous = previousBins[item];
+            return previous >= 0 && previous != bin ? costs[item] : 0;
+        }
+
+        @Override
+        public boolean hasItemCosts() {
+            return true;
+        }
+
+        @Override
+        public int score(BinPackingInstance instance, int[] loads, int binCount, int[] assignment) {
+            int score = 0;
+            for (int item = 0; item < instance.items; item++) {
+                score += itemCost(item, assignment[item]);
+            }
+            return score;
+        }
+
+        /*
+         * Each bin takes the number of the previous bin whose items it holds the largest cost of, greedily,
+         * largest overlaps first; the bins left over take the free numbers in order. Only previous bins below
+         * binCount can be matched: a packing of fewer bins than the previous one moves the items of the last
+         * previous bins.
+         */
+        @Override
+        public boolean align(BinPackingInstance instance, int[] assignment, int[] loads, int binCount) {
+            int items = instance.items;
+            // overlap costs, new bin by new bin: weight[previous bin], the previous bins seen listed in touched
+            int[] start = new int[binCount + 1];
+            for (int item = 0; item < items; item++) {
+                start[assignment[item] + 1]++;
+            }
+            for (int bin = 0; bin < binCount; bin++) {
+                start[bin + 1] += start[bin];
+            }
+            int[] byBin = new int[items];
+            int[] filled = Arrays.copyOf(start, binCount);
+            for (int item = 0; item < items; item++) {
+                byBin[filled[assignment[item]]++] = item;
+            }
+            int[] weight = new int[binCount];
+            int[] touched = new int[binCount];
+            int[] overlapBins = new int[items];
+            int[] overlapPrevious = new int[items];
+            long[] keys = new long[items];
+            int overlaps = 0;
+            for (int bin = 0; bin < binCount; bin++) {
+                int seen = 0;
+                for (int k = start[bin]; k < start[bin + 1]; k++) {
+                    int item = byBin[k];
+                    int previous = previousBins[item];
+                    if (previous >= 0 && previous < binCount && costs[item] > 0) {
+                        if (weight[previous] == 0) {
+                            touched[seen++] = previous;
+                        }
+                        weight[previous] += costs[item];
+                    }
+                }
+                for (int k = 0; k < seen; k++) {
+                    int previous = touched[k];
+                    overlapBins[overlaps] = bin;
+                    overlapPrevious[overlaps] = previous;
+                    // largest weight first, then in the order found
+                    keys[overlaps] = (long) (Integer.MAX_VALUE - weight[previous]) << 32 | overlaps;
+                    overlaps++;
+                    weight[previous] = 0;
+                }
+            }
+            Arrays.sort(keys, 0, overlaps);
+            int[] target = new int[binCount];
+            Arrays.fill(target, -1);
+            boolean[] taken = new boolean[binCount];
+            for (int k = 0; k < overlaps; k++) {
+                int overlap = (int) keys[k];
+                int bin = overlapBins[overlap];
+                int previous = overlapPrevious[overlap];
+                if (target[bin] < 0 && !taken[previous]) {
+                    target[bin] = previous;
+                    taken[previous] = true;
+                }
+            }
+            boolean renumbered = false;
+            for (int bin = 0, free = 0; bin < binCount; bin++) {
+                if (target[bin] < 0) {
+                    while (taken[free]) {
+                        free++;
+                    }
+                    target[bin] = free;
+                    taken[free] = true;
+                }
+                renumbered |= target[bin] != bin;
+            }
+            if (!renumbered) {
+                return false;
+            }
+            for (int item = 0; item < items; item++) {
+                assignment[item] = target[assignment[item]];
+            }
+            int[] moved = new int[binCount];
+            for (int d = 0, offset = 0; d < instance.dimensions; d++, offset += items) {
+                System.arraycopy(loads, offset, moved, 0, binCount);
+                for (int bin = 0; bin < binCount; bin++) {
+                    loads[offset + target[bin]] = moved[bin];
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Objective renumbered(int[] order) {
+            int[] bins = new int[order.length];
+            int[] itemCosts = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                bins[i] = previousBins[order[i]];
+                itemCosts[i] = costs[order[i]];
+            }
+            return new Migrations(bins, itemCosts);
+        }
+    }
+
+    private static final class Fragmentation extends Objective {
+        private final int[] closedFrom;   // per dimension: from this load on, no item fits in the room left
+        private final int[] capacities;
+        private final int[] steps;
+        private final int[][] stranded;   // per dimension and table step of the load: room left, per mille
+
+        Fragmentation(BinPackingInstance instance) {
+            int dimensions = instance.dimensions;
+            closedFrom = new int[dimensions];
+            capacities = instance.capacities.clone();
+            steps = new int[dimensions];
+            stranded = new int[dimensions][];
+            for (int d = 0; d < dimensions; d++) {
+                int capacity = instance.capacities[d];
+                int smallest = capacity;
+                for (int demand : instance.demands[d]) {
+                    if (demand > 0) {
+                        smallest = Math.min(smallest, demand);
+                    }
+                }
+                closedFrom[d] = capacity - smallest + 1;
+                steps[d] = Math.min(capacity, MAX_TABLE_STEPS);
+                stranded[d] = new int[steps[d] + 1];
+                for (int step = 0; step <= steps[d]; step++) {
+                    stranded[d][step] = 1000 - (int) ((long) 1000 * step / steps[d]);
+                }
+            }
+        }
+
+        // One pass over the dimensions; an empty bin is never closed
+        @Override
+        public int binCost(BinPackingInstance instance, int[] loads, int bin) {
+            boolean closed = false;
+            int cost = 0;
+            for (int d = 0, index = bin; d < closedFrom.length; d++, index += instance.items) {
+                int load = loads[index];
+                closed |= load >= closedFrom[d];
+                cost += load >= capacities[d] ? 0 : stranded[d][step(load, capacities[d], steps[d])];
+            }
+            return closed ? cost : 0;
+        }
+
+        @Override
+        public int score(BinPackingInstance instance, int[] loads, int binCount, int[] assignment) {
+            int score = 0;
+            for (int bin = 0; bin < binCount; bin++) {
+                score += binCost(instance, loads, bin);
+            }
+            return score;
+        }
+    }
+
+    private static final class Weighted extends Objective {
+        private final Objective objective;
+        private final int weight;
+
+        Weighted(Objective objective, int weight) {
+            this.objective = objective;
+            this.weight = weight;
+        }
+
+        @Override
+        public int binCost(BinPackingInstance instance, int[] loads, int bin) {
+            return weight * objective.binCost(instance, loads, bin);
+        }
+
+        @Override
+        public int itemCost(int item, int bin) {
+            return weight * objective.itemCost(item, bin);
+        }
+
+        @Override
+        public boolean hasItemCosts() {
+            return objective.hasItemCosts();
+        }
+
+        @Override
+        public boolean binsFirst() {
+            return objective.binsFirst();
+        }
+
+        @Override
+        public boolean align(BinPackingInstance instance, int[] assignment, int[] loads, int binCount) {
+            return objective.align(instance, assignment, loads, binCount);
+        }
+
+        @Override
+        public int score(BinPackingInstance instance, int[] loads, int binCount, int[] assignment) {
+            return weight * objective.score(instance, loads, binCount, assignment);
+        }
+
+        @Override
+        public Objective renumbered(int[] order) {
+            return new Weighted(objective.renumbered(order), weight);
+        }
+    }
+
+    private static final class Sum extends Objective {
+        private final Objective[] parts;
+        private final boolean itemCosts;
+
+        Sum(Objective[] parts) {
+            this.parts = parts.clone();
+            boolean itemCosts = false;
+            for (Objective part : parts) {
+                itemCosts |= part.hasItemCosts();
+            }
+            this.itemCosts = itemCosts;
+        }
+
+        @Override
+        public int binCost(BinPackingInstance instance, int[] loads, int bin) {
+            int cost = 0;
+            for (Objective part : parts) {
+                cost += part.binCost(instance, loads, bin);
+            }
+            return cost;
+        }
+
+        @Override
+        public int itemCost(int item, int bin) {
+            int cost = 0;
+            for (Objective part : parts) {
+                cost += part.itemCost(item, bin);
+            }
+            return cost;
+        }
+
+        @Override
+        public boolean hasItemCosts() {
+            return itemCosts;
+        }
+
+        // Only the first part with item costs aligns: two of them would undo each other's numbering
+        @Override
+        public boolean align(BinPackingInstance instance, int[] assignment, int[] loads, int binCount) {
+            for (Objective part : parts) {
+                if (part.hasItemCosts()) {
+                    return part.align(instance, assignment, loads, binCount);
+                }
+            }
+            return false;
+        }
+
+        // Part by part: each pass calls the terms of a single objective, which the JIT can inline
+        @Override
+        public int score(BinPackingInstance instance, int[] loads, int binCount, int[] assignment) {
+            int score = 0;
+            for (Objective part : parts) {
+                score += part.score(instance, loads, binCount, assignment);
+            }
+            return score;
+        }
+
+        @Override
+        public Objective renumbered(int[] order) {
+            Objective[] renumbered = new Objective[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                renumbered[i] = parts[i].renumbered(order);
+            }
+            return new Sum(renumbered);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package binpacking;
+
+import java.util.ArrayList;
+
+/*
+ * A packing returned by a BinPackingSolver: assignment[item] is the bin of the item, bins are numbered from 0 to
+ * binCount - 1. Immutable once built, so it can be shared between solver threads.
+ */
+public final class Packing {
+    final int[] assignment;
+    final int binCount;
+    final int fitness;    // cost under the objective of the run, see Objective
+    final String solver;  // name of the solver that found it
+    final long foundAt;   // System.nanoTime() when it was found
+
+    Packing(int[] assignment, int binCount, int fitness, String solver) {
+        this(assignment, binCount, fitness, solver, System.nanoTime());
+    }
+
+    private Packing(int[] assignment, int binCount, int fitness, String solver, long foundAt) {
+        this.assignment = assignment;
+        this.binCount = binCount;
+        this.fitness = fitness;
+        this.solver = solver;
+        this.foundAt = foundAt;
+    }
+
+    // Builds the packing of an assignment, computing its fitness; the array is kept, not copied
+    static Packing of(BinPackingInstance instance, int[] assignment, int binCount, String solver) {
+        return of(instance, assignment, binCount, solver, Objective.BIN_COUNT);
+    }
+
+    static Packing of(BinPackingInstance instance, int[] assignment, int binCount, String solver,
+                      Objective objective) {
+        return new Packing(assignment, binCount, objective.score(instance, assignment, binCount), solver);
+    }
+
+    static Packing of(BinPackingInstance instance, int[] assignment, int binCount, String solver, long foundAt) {
+        return new Packing(assignment, binCount, Objective.BIN_COUNT.score(instance, assignment, binCount), solver,
+                foundAt);
+    }
+
+    public int binCount() {
+        return binCount;
+    }
+
+    public int fitness() {
+        return fitness;
+    }
+
+    public String solver() {
+        return solver;
+    }
+
+    // Labels of the items of each bin (used for printing only)
+    public ArrayList<ArrayList<String>> toBins(BinPackingInstance instance) {
+        ArrayList<ArrayList<String>> bins = new ArrayList<>();
+        for (int i = 0; i < binCount; i++) {
+            bins.add(new ArrayList<>());
+        }
+        for (int item = 0; item < assignment.length; item++) {
+            bins.get(assignment[item]).add(instance.label(item));
+        }
+        return bins;
+    }
+}
@@ -0,0 +1,147 @@
+package binpacking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+ * Runs several solvers concurrently on one instance, each started on a thread of its own (the ACO and the
+ * island GA then work on a pool of config.threads threads), sharing a single incumbent: every improvement is
+ * visible to the others (the GA and the PSO take it into their population / swarm), and all of them stop as
+ * soon as one reaches the lower bound or the deadline passes. Solver k gets the seed
+ * seed + k * 0x9E3779B97F4A7C15L. The result is the incumbent.
+ *
+ * The solvers check the incumbent within their steps (every offspring, particle or 1024 items of an ant), so
+ * the runner waits for them before it returns: no solver is left running on the CPU after the run. When it
+ * gives up early, because a solver failed or the calling thread was interrupted, it stops the incumbent first
+ * so that the others end too.
+ */
+public class PortfolioSolver implements BinPackingSolver {
+    private final List<BinPackingSolver> solvers;
+
+    public PortfolioSolver(List<BinPackingSolver> solvers) {
+        this.solvers = solvers;
+    }
+
+    public PortfolioSolver() {
+        this(Arrays.asList(new BinPackingGeneticAlgorithm(), new BinPackingPSO(), new AntColonyOptimization()));
+    }
+
+    @Override
+    public String name() {
+        return "Portfolio";
+    }
+
+    @Override
+    public Packing solve(BinPackingInstance instance, SolverConfig config, long seed, Incumbent incumbent) {
+        if (config.checkpoint != null) {
+            throw new IllegalArgumentException("a portfolio run cannot be checkpointed, its solvers interact");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(solvers.size(), task -> {
+            Thread thread = new Thread(task, "portfolio-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean finished = false;
+        try {
+            List<Future<Packing>> results = new ArrayList<>();
+            for (int k = 0; k < solvers.size(); k++) {
+                BinPackingSolver solver = solvers.get(k);
+                long solverSeed = seed + k * 0x9E3779B97F4A7C15L;
+                results.add(executor.submit(() -> solver.solve(instance, config, solverSeed, incumbent)));
+            }
+            for (Future<Packing> result : results) {
+                while (!result.isDone() && !incumbent.shouldStop()) {
+                    try {
+                        result.get(1, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // check the incumbent again
+                    }
+                }
+                if (!result.isDone()) {
+                    break;
+                }
+                Packing packing = result.get();
+                // a solver's own best was offered as it was found; this only matters for solvers that do not share
+                if (packing != null) {
+                    incumbent.offer(packing.assignment, packing.binCount, packing.fitness, packing.solver);
+                }
+            }
+            finished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("solver failed", e.getCause());
+        } finally {
+            if (!finished) {
+                incumbent.stop();
+            }
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+        return incumbent.best();
+    }
+
+    // Waits for the solvers to end, keeping the interrupt status of the calling thread for later
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Arguments (all optional): time budget in milliseconds (default 1000) and seed (default 42). Generation
+     * counts are not limited, the budget or the lower bound ends the run. The objective is chosen with the
+     * binpacking.objective system property, see Objective.fromSystemProperties, and the moves of the solvers'
+     * local search with binpacking.localsearch (none by default, see LocalSearch).
+     */
+    public static void main(String[] args) {
+        try {
+            BinPackingInstance instance = InstanceLoader.load("input.txt");
+            long budget = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+            long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+            SolverConfig config = new SolverConfig();
+            config.generations = Integer.MAX_VALUE;
+            config.iterations = Integer.MAX_VALUE;
+            config.antIterations = Integer.MAX_VALUE;
+            config.objective = Objective.fromSystemProperties(instance);
+            config.localSearchMoves = LocalSearch.movesFromSystemProperties();
+            long start = System.nanoTime();
+            Incumbent incumbent = new Incumbent(instance, Incumbent.deadlineIn(budget), config.objective);
+            Reduction reduction = Reduction.of(instance);
+            Packing best = new Preprocessing(new PortfolioSolver()).solve(reduction, config, seed, incumbent);
+            System.out.println("Lower bound: " + reduction.lowerBound + " (" + reduction.fixedBins
+                    + " bins fixed by reduction, " + reduction.residual.items + " items left, "
+                    + reduction.weightClasses + " distinct weights)");
+            System.out.println("Final Result (" + best.solver + ", found after "
+                    + (best.foundAt - start) / 1_000_000 + " ms, stopped after "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms):");
+            System.out.println("Number of bins used: " + best.binCount);
+            BinPackingGeneticAlgorithm.printCost(config.objective, best.fitness);
+            System.out.println("Items in each bin:");
+            ArrayList<ArrayList<String>> bins = best.toBins(instance);
+            for (int i = 0; i < bins.size(); i++) {
+                System.out.println("Bin " + (i + 1) + ": " + bins.get(i));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
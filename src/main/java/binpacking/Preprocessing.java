@@ -0,0 +1,71 @@
+package binpacking;
+
+/*
+ * Preprocessing stage in front of a solver: the instance is reduced first (see Reduction), first-fit decreasing
+ * packs the residual items, and the solver only runs if that packing is above the lower bound of the residual
+ * instance, and only on the residual instance: fewer items, and a bound it stops at as soon as it reaches it.
+ * The returned packing is the fixed bins followed by the best packing of the residual instance.
+ *
+ * The solver works with an incumbent of its own, on the residual instance, with the deadline of the given one;
+ * the result is offered to the given incumbent at the end. Wrapping a PortfolioSolver reduces the instance once
+ * for all its solvers. The progress it reports counts the fixed bins in (see SolverMetrics).
+ *
+ * The reduction only preserves the optimal bin count: with an objective that does not rank by bin count first
+ * (see Objective) the solver runs on the whole instance.
+ */
+public final class Preprocessing implements BinPackingSolver {
+    static final String FFD = "FFD";
+
+    private final BinPackingSolver solver;
+
+    public Preprocessing(BinPackingSolver solver) {
+        this.solver = solver;
+    }
+
+    @Override
+    public String name() {
+        return solver.name();
+    }
+
+    @Override
+    public Packing solve(BinPackingInstance instance, SolverConfig config, long seed, Incumbent incumbent) {
+        if (!config.objective.binsFirst()) {
+            return solver.solve(instance, config, seed, incumbent);
+        }
+        return solve(Reduction.of(instance), config, seed, incumbent);
+    }
+
+    Packing solve(Reduction reduction, SolverConfig config, long seed, Incumbent incumbent) {
+        if (!config.objective.binsFirst()) {
+            return solver.solve(reduction.instance, config, seed, incumbent);
+        }
+        BinPackingInstance residual = reduction.residual;
+        Incumbent inner = new Incumbent(residual, incumbent.deadline);
+        int[] assignment = new int[residual.items];
+        int[] loads = residual.newLoads();
+        int binCount = ConstructionHeuristics.pack(residual, ConstructionHeuristics.decreasingOrder(residual),
+                ConstructionHeuristics.Rule.FIRST_FIT, assignment, loads);
+        int residualFitness = BinFitness.score(residual, loads, binCount);
+        inner.offer(assignment, binCount, residualFitness, FFD);
+        if (!inner.shouldStop()) {
+            SolverMetrics metrics = config.metrics;
+            if (metrics != null) {
+                Packing ffd = Packing.of(reduction.instance, reduction.combine(assignment),
+                        reduction.fixedBins + binCount, FFD);
+                metrics.setOffsets(reduction.fixedBins, ffd.fitness - residualFitness);
+            }
+            try {
+                solver.solve(residual, config, seed, inner);
+            } finally {
+                if (metrics != null) {
+                    metrics.setOffsets(0, 0);
+                }
+            }
+        }
+        Packing best = inner.best();
+        Packing packing = Packing.of(reduction.instance, reduction.combine(best.assignment),
+                reduction.fixedBins + best.binCount, best.solver, best.foundAt);
+        incumbent.offer(packing.assignment, packing.binCount, packing.fitness, packing.solver);
+        return packing;
+    }
+}
@@ -0,0 +1,171 @@
+package binpacking;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Samples a SolverMetrics at a fixed interval on a background daemon thread and exports it: one line on the
+ * console and/or one record in a trace file (CSV, or JSON lines when the file name ends in .jsonl or .json).
+ * The solver threads never format or write anything.
+ *
+ * Rates are computed between two samples. Allocation is the growth of the bytes allocated by all live threads
+ * (when the JVM can measure it) divided by the generations run in the interval; it includes the reporter's
+ * own, small, allocations.
+ *
+ * The main methods configure it with system properties:
+ *   binpacking.progress.interval  sampling interval in milliseconds (default 1000)
+ *   binpacking.progress.console   false to silence the console lines (default true)
+ *   binpacking.progress.trace     trace file to write (default none)
+ * With the console silenced and no trace file nothing listens and metrics() is null.
+ */
+public final class ProgressReporter implements AutoCloseable {
+    static final String CSV_HEADER = "elapsed_ms,generations,evaluations,best_fitness,mean_fitness,"
+            + "generations_per_s,bytes_per_generation,generation_p50_us,generation_p99_us";
+
+    private final String solver;
+    private final SolverMetrics metrics;
+    private final PrintStream console;
+    private final BufferedWriter trace;
+    private final boolean json;
+    private final ScheduledExecutorService scheduler;
+    private final long start = System.nanoTime();
+    private long lastTime = start;
+    private long lastGenerations;
+    private long lastAllocated;
+
+    public ProgressReporter(String solver, long intervalMillis, PrintStream console, Path trace) throws IOException {
+        this.solver = solver;
+        this.console = console;
+        this.json = trace != null && (trace.toString().endsWith(".jsonl") || trace.toString().endsWith(".json"));
+        if (console == null && trace == null) {
+            this.metrics = null;
+            this.trace = null;
+            this.scheduler = null;
+            return;
+        }
+        this.metrics = new SolverMetrics();
+        this.trace = trace == null ? null : Files.newBufferedWriter(trace);
+        if (this.trace != null && !json) {
+            this.trace.write(CSV_HEADER);
+            this.trace.newLine();
+        }
+        this.lastAllocated = allocatedBytes();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static ProgressReporter fromSystemProperties(String solver) throws IOException {
+        long interval = Long.getLong("binpacking.progress.interval", 1000);
+        boolean console = Boolean.parseBoolean(System.getProperty("binpacking.progress.console", "true"));
+        String trace = System.getProperty("binpacking.progress.trace");
+        return new ProgressReporter(solver, interval, console ? System.out : null,
+                trace == null ? null : Paths.get(trace));
+    }
+
+    // The metrics the solver should update, or null when nothing listens
+    public SolverMetrics metrics() {
+        return metrics;
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        long generations = metrics.generations();
+        long allocated = allocatedBytes();
+        long newGenerations = generations - lastGenerations;
+        double rate = now > lastTime ? newGenerations * 1e9 / (now - lastTime) : 0;
+        // a thread that ended takes its count with it, which can make the difference negative: not measured then
+        long bytesPerGeneration = allocated >= 0 && lastAllocated >= 0 && allocated >= lastAllocated
+                && newGenerations > 0 ? (allocated - lastAllocated) / newGenerations : -1;
+        lastTime = now;
+        lastGenerations = generations;
+        lastAllocated = allocated;
+
+        long elapsedMillis = (now - start) / 1_000_000;
+        int best = metrics.bestFitness();
+        double mean = metrics.meanFitness();
+        LatencyHistogram histogram = metrics.generationNanos();
+        double p50 = histogram.percentile(0.5) / 1e3;
+        double p99 = histogram.percentile(0.99) / 1e3;
+        if (console != null && generations > 0) {
+            console.println(String.format(Locale.ROOT,
+                    "[%s] %.1fs generation %d: best fitness = %d, mean = %.2f | %.0f gen/s, %d evaluations, "
+                            + "%s/gen, generation p50 %.1f us p99 %.1f us",
+                    solver, elapsedMillis / 1e3, generations, best, mean, rate, metrics.evaluations(),
+                    bytesPerGeneration < 0 ? "n/a B" : bytesPerGeneration + " B", p50, p99));
+        }
+        if (trace != null) {
+            String bestText = best == Integer.MAX_VALUE ? "" : Integer.toString(best);
+            String meanText = Double.isNaN(mean) ? "" : String.format(Locale.ROOT, "%.4f", mean);
+            try {
+                if (json) {
+                    trace.write(String.format(Locale.ROOT,
+                            "{\"solver\":\"%s\",\"elapsed_ms\":%d,\"generations\":%d,\"evaluations\":%d,"
+                                    + "\"best_fitness\":%s,\"mean_fitness\":%s,\"generations_per_s\":%.2f,"
+                                    + "\"bytes_per_generation\":%s,\"generation_p50_us\":%.1f,"
+                                    + "\"generation_p99_us\":%.1f}",
+                            solver, elapsedMillis, generations, metrics.evaluations(),
+                            bestText.isEmpty() ? "null" : bestText, meanText.isEmpty() ? "null" : meanText, rate,
+                            bytesPerGeneration < 0 ? "null" : Long.toString(bytesPerGeneration), p50, p99));
+                } else {
+                    trace.write(String.format(Locale.ROOT, "%d,%d,%d,%s,%s,%.2f,%s,%.1f,%.1f",
+                            elapsedMillis, generations, metrics.evaluations(), bestText, meanText, rate,
+                            bytesPerGeneration < 0 ? "" : Long.toString(bytesPerGeneration), p50, p99));
+                }
+                trace.newLine();
+                trace.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Bytes allocated so far by all live threads, or -1 if the JVM does not measure it
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        if (!allocation.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : allocation.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(bytes, 0);
+        }
+        return total;
+    }
+
+    // Stops the sampling and exports a last sample covering the end of the run
+    @Override
+    public void close() throws IOException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+        if (trace != null) {
+            trace.close();
+        }
+    }
+}
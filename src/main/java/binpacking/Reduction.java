@@ -0,0 +1,277 @@
+package binpacking;
+
+import java.util.Arrays;
+
+/*
+ * Martello and Toth's reduction: bins that some optimal packing is known to contain are fixed before the search,
+ * and the solvers only see the remaining (residual) items. Since the fixed bins belong to an optimal packing,
+ * fixed bins + an optimal packing of the residual instance is optimal, and fixed bins + L2(residual) is a lower
+ * bound of the whole instance.
+ *
+ * In one dimension, item j (taken from the largest) with room r = C - w(j) next to it gets a bin of its own with
+ *  - no other item, if none fits in r;
+ *  - k, the largest other item that fits in r, if no two other items fit together in r (any bin of j holds at
+ *    most one item, no larger than k) or if w(k) = r (whatever else a bin of j holds weighs at most w(k)):
+ *    exchanging k with the rest of j's bin in an optimal packing keeps it feasible.
+ * These are the one- and two-item sets of the MTRP procedure; its three-item sets are not tried. Items are handled
+ * by weight class (the distinct weights, with their counts; input.txt has 250 items but 78 weights): items of a
+ * class are interchangeable, so a class that cannot be reduced is skipped at once, and finding the largest
+ * class below a weight or the smallest ones is a binary search plus union-find skips over emptied classes.
+ *
+ * On input.txt, 65 bins are fixed this way and 120 items are left.
+ *
+ * With several dimensions only the first rule is used, with a necessary condition: j fits with no other item
+ * when, in some dimension, it does not fit with the smallest demand of the others.
+ */
+final class Reduction {
+    final BinPackingInstance instance;
+    final int[] fixedAssignment;  // bin of each fixed item, -1 for the residual items
+    final int fixedBins;
+    final int[] residualItems;    // item i of residual is item residualItems[i] of instance, by decreasing size
+    final BinPackingInstance residual;
+    final int weightClasses;      // distinct demands (or demand vectors) among the items
+    final int lowerBound;         // fixedBins + L2(residual)
+
+    private Reduction(BinPackingInstance instance, int[] fixedAssignment, int fixedBins, int weightClasses) {
+        this.instance = instance;
+        this.fixedAssignment = fixedAssignment;
+        this.fixedBins = fixedBins;
+        this.weightClasses = weightClasses;
+        int[] order = ConstructionHeuristics.decreasingOrder(instance);
+        int count = 0;
+        for (int item : order) {
+            count += fixedAssignment[item] < 0 ? 1 : 0;
+        }
+        this.residualItems = new int[count];
+        int next = 0;
+        for (int item : order) {
+            if (fixedAssignment[item] < 0) {
+                residualItems[next++] = item;
+            }
+        }
+        this.residual = instance.permute(residualItems);
+        this.lowerBound = fixedBins + LowerBounds.l2(residual);
+    }
+
+    static Reduction of(BinPackingInstance instance) {
+        int[] assignment = new int[instance.items];
+        Arrays.fill(assignment, -1);
+        if (instance.dimensions == 1) {
+            Classes classes = new Classes(instance.weights);
+            int bins = classes.reduce(instance.capacity, assignment);
+            return new Reduction(instance, assignment, bins, classes.weights.length);
+        }
+        return new Reduction(instance, assignment, fixAlone(instance, assignment), vectorClasses(instance));
+    }
+
+    // Assignment of the whole instance: the fixed bins first, then the bins of the residual packing
+    int[] combine(int[] residualAssignment) {
+        int[] assignment = fixedAssignment.clone();
+        for (int i = 0; i < residualItems.length; i++) {
+            assignment[residualItems[i]] = fixedBins + residualAssignment[i];
+        }
+        return assignment;
+    }
+
+    // Several dimensions: a bin of its own for every item that fits with no other; returns the bins used
+    private static int fixAlone(BinPackingInstance instance, int[] assignment) {
+        int n = instance.items;
+        int[] smallest = new int[instance.dimensions];      // item with the smallest demand in each dimension
+        int[] secondSmallest = new int[instance.dimensions]; // smallest demand of the other items
+        for (int d = 0; d < instance.dimensions; d++) {
+            int[] demands = instance.demands[d];
+            smallest[d] = -1;
+            secondSmallest[d] = Integer.MAX_VALUE;
+            for (int item = 0; item < n; item++) {
+                if (smallest[d] < 0 || demands[item] < demands[smallest[d]]) {
+                    if (smallest[d] >= 0) {
+                        secondSmallest[d] = demands[smallest[d]];
+                    }
+                    smallest[d] = item;
+                } else {
+                    secondSmallest[d] = Math.min(secondSmallest[d], demands[item]);
+                }
+            }
+        }
+        int bins = 0;
+        for (int item = 0; item < n; item++) {
+            for (int d = 0; d < instance.dimensions; d++) {
+                int[] demands = instance.demands[d];
+                long other = item == smallest[d] ? secondSmallest[d] : demands[smallest[d]];
+                if (demands[item] + other > instance.capacities[d]) {
+                    assignment[item] = bins++;
+                    break;
+                }
+            }
+        }
+        return bins;
+    }
+
+    private static int vectorClasses(BinPackingInstance instance) {
+        Integer[] items = new Integer[instance.items];
+        for (int item = 0; item < items.length; item++) {
+            items[item] = item;
+        }
+        Arrays.sort(items, (a, b) -> {
+            for (int d = 0; d < instance.dimensions; d++) {
+                int compare = Integer.compare(instance.demands[d][a], instance.demands[d][b]);
+                if (compare != 0) {
+                    return compare;
+                }
+            }
+            return 0;
+        });
+        int classes = 0;
+        for (int i = 0; i < items.length; i++) {
+            if (i == 0 || !sameDemands(instance, items[i - 1], items[i])) {
+                classes++;
+            }
+        }
+        return classes;
+    }
+
+    private static boolean sameDemands(BinPackingInstance instance, int a, int b) {
+        for (int d = 0; d < instance.dimensions; d++) {
+            if (instance.demands[d][a] != instance.demands[d][b]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * The items grouped by weight: class c (by increasing weight) has weight weights[c] and its items still free
+     * are items[start[c], start[c] + remaining[c]). below[c] / above[c] lead to the nearest classes under / over
+     * c that may still have items (union-find with path compression over the emptied classes).
+     */
+    private static final class Classes {
+        final int[] weights;
+        final int[] start;
+        final int[] remaining;
+        final int[] items;
+        final int[] below;
+        final int[] above;
+
+        Classes(int[] itemWeights) {
+            int n = itemWeights.length;
+            long[] keys = new long[n];
+            for (int item = 0; item < n; item++) {
+                keys[item] = ((long) itemWeights[item] << 32) | item;
+            }
+            Arrays.sort(keys);
+            items = new int[n];
+            int classes = 0;
+            for (int i = 0; i < n; i++) {
+                items[i] = (int) keys[i];
+                if (i == 0 || (keys[i] >>> 32) != (keys[i - 1] >>> 32)) {
+                    classes++;
+                }
+            }
+            weights = new int[classes];
+            start = new int[classes];
+            remaining = new int[classes];
+            for (int i = 0, c = -1; i < n; i++) {
+                if (i == 0 || (keys[i] >>> 32) != (keys[i - 1] >>> 32)) {
+                    weights[++c] = (int) (keys[i] >>> 32);
+                    start[c] = i;
+                }
+                remaining[c]++;
+            }
+            below = new int[classes];
+            above = new int[classes];
+            for (int c = 0; c < classes; c++) {
+                below[c] = c;
+                above[c] = c;
+            }
+        }
+
+        // Largest class <= c with an item other than one of class excluded, or -1
+        int largestAtMost(int c, int excluded) {
+            c = down(c);
+            if (c >= 0 && c == excluded && remaining[c] == 1) {
+                c = down(c - 1);
+            }
+            return c;
+        }
+
+        // Smallest class >= c with an item other than one of class excluded, or weights.length
+        int smallestAtLeast(int c, int excluded) {
+            c = up(c);
+            if (c < weights.length && c == excluded && remaining[c] == 1) {
+                c = up(c + 1);
+            }
+            return c;
+        }
+
+        private int down(int c) {
+            int root = c;
+            while (root >= 0 && remaining[root] == 0) {
+                root = below[root] == root ? root - 1 : below[root];
+            }
+            for (int node = c; node >= 0 && node != root && remaining[node] == 0; ) {
+                int next = below[node] == node ? node - 1 : below[node];
+                below[node] = root;
+                node = next;
+            }
+            return root;
+        }
+
+        private int up(int c) {
+            int root = c;
+            while (root < weights.length && remaining[root] == 0) {
+                root = above[root] == root ? root + 1 : above[root];
+            }
+            for (int node = c; node < weights.length && node != root && remaining[node] == 0; ) {
+                int next = above[node] == node ? node + 1 : above[node];
+                above[node] = root;
+                node = next;
+            }
+            return root;
+        }
+
+        int take(int c) {
+            return items[start[c] + --remaining[c]];
+        }
+
+        // Applies the reduction rules, largest class first; returns the number of bins fixed
+        int reduce(int capacity, int[] assignment) {
+            int bins = 0;
+            for (int c = weights.length - 1; c >= 0; c--) {
+                while (remaining[c] > 0) {
+                    int room = capacity - weights[c];
+                    int partner = room < 0 ? -1 : largestAtMost(upperBound(room) - 1, c);
+                    if (partner >= 0) {
+                        int first = smallestAtLeast(0, c);
+                        int second = remaining[first] - (first == c ? 1 : 0) >= 2
+                                ? first : smallestAtLeast(first + 1, c);
+                        boolean twoFit = second < weights.length && weights[first] + weights[second] <= room;
+                        if (twoFit && weights[partner] != room) {
+                            break; // the other items of the class would fail the same way
+                        }
+                    }
+                    int bin = bins++;
+                    assignment[take(c)] = bin;
+                    if (partner >= 0) {
+                        assignment[take(partner)] = bin;
+                    }
+                }
+            }
+            return bins;
+        }
+
+        // First class whose weight is greater than weight
+        private int upperBound(int weight) {
+            int low = 0;
+            int high = weights.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (weights[middle] <= weight) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package binpacking;
+
+import java.util.Arrays;
+
+/*
+ * Bins bucketed by the room left in their first dimension, so that the bins an item fits best in are found
+ * without a scan of all the bins: walking the buckets up from the one of the item's demand visits the bins by
+ * increasing room (exactly when the capacity is below BUCKETS, by bucket otherwise). Each bucket is a doubly
+ * linked list over the bin indices, so a bin changes bucket in O(1); a bin can be in no bucket at all. The
+ * arrays only grow, so that one ResidualBuckets serves a series of instances (see reset).
+ * Used by the ants' construction (see AntColonyOptimization.packItems) and by LocalSearch.
+ */
+final class ResidualBuckets {
+    static final int BUCKETS = 1024;
+
+    int[] heads;          // first bin of each bucket, -1 for an empty bucket
+    int[] next;           // next bin in the same bucket, -1 for the last
+    private int[] previous;
+    private int[] bucketOf; // -1 for a bin in no bucket
+    private long capacity;
+
+    ResidualBuckets(BinPackingInstance instance) {
+        this.next = new int[instance.items];
+        this.previous = new int[instance.items];
+        this.bucketOf = new int[instance.items];
+        reset(instance);
+    }
+
+    // Makes the buckets those of the bins of the instance, growing the arrays if it has more items; clear() next
+    void reset(BinPackingInstance instance) {
+        capacity = instance.capacities[0];
+        int buckets = (int) Math.min(capacity + 1, BUCKETS);
+        if (heads == null || heads.length != buckets) {
+            heads = new int[buckets];
+        }
+        if (next.length < instance.items) {
+            next = new int[instance.items];
+            previous = new int[instance.items];
+            bucketOf = new int[instance.items];
+        }
+    }
+
+    void clear() {
+        Arrays.fill(heads, -1);
+        Arrays.fill(bucketOf, -1);
+    }
+
+    // Bucket of the bins with that room; a negative room (an overloaded bin) counts as none
+    int bucket(int room) {
+        return (int) (Math.max(room, 0) * (long) heads.length / (capacity + 1));
+    }
+
+    // Puts the bin in the bucket of its room, out of the one it was in
+    void put(int bin, int room) {
+        remove(bin);
+        int bucket = bucket(room);
+        next[bin] = heads[bucket];
+        previous[bin] = -1;
+        if (heads[bucket] >= 0) {
+            previous[heads[bucket]] = bin;
+        }
+        heads[bucket] = bin;
+        bucketOf[bin] = bucket;
+    }
+
+    void remove(int bin) {
+        int bucket = bucketOf[bin];
+        if (bucket < 0) {
+            return;
+        }
+        if (previous[bin] >= 0) {
+            next[previous[bin]] = next[bin];
+        } else {
+            heads[bucket] = next[bin];
+        }
+        if (next[bin] >= 0) {
+            previous[next[bin]] = previous[bin];
+        }
+        bucketOf[bin] = -1;
+    }
+}
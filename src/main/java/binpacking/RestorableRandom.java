@@ -0,0 +1,45 @@
+package binpacking;
+
+import java.util.Random;
+
+/*
+ * java.util.Random whose state can be saved and restored (see Snapshot). It is the same linear congruential
+ * generator, so new RestorableRandom(seed) draws exactly the numbers new Random(seed) does, and a generator
+ * restored from state() continues the sequence where it was saved. The state is the 48-bit seed; the value
+ * nextGaussian keeps for its next call is not part of it (the solvers do not use nextGaussian).
+ * Not thread-safe, unlike Random: every stream of the solvers belongs to one thread at a time.
+ */
+final class RestorableRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state; // set by Random's constructor through setSeed, so no initializer
+
+    RestorableRandom(long seed) {
+        super(seed);
+    }
+
+    static RestorableRandom withState(long state) {
+        RestorableRandom random = new RestorableRandom(0);
+        random.state = state & MASK;
+        return random;
+    }
+
+    long state() {
+        return state;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+}
@@ -0,0 +1,369 @@
+package binpacking;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/*
+ * Scaling runs: every solver on generated instances (see InstanceGenerator) of 10^3 items up to a maximum, by
+ * factors of 10, each run with the same time budget and no generation limit, through Preprocessing like the
+ * batch mode. One CSV line per run:
+ *  - time_ms: wall time of the run, reduction included (the budget counts from before it). A run that cannot
+ *    finish one step within the budget overruns it, which is how a step whose cost grows too fast with the size
+ *    shows up;
+ *  - peak_heap_mb: the sum of the peak usages of the heap memory pools, reset before the run (after a full GC);
+ *  - allocated_mb: bytes allocated on the heap during the run, by all the threads (see AllocationMeter);
+ *  - excess_bins: bins above the lower bound (the reduction's, see Reduction), 0 when provably optimal.
+ * A run that runs out of memory is reported with status oom, and the others go on.
+ *
+ * Two reports are compared with the compare command: a run is flagged when it overruns its budget while it did
+ * not before, when its time, peak heap or allocation grew by more than half (with some slack for small values),
+ * when it uses more bins, or when it fails. For each solver and distribution the growth exponent of the peak
+ * heap with the item count (slope of the log-log fit) is printed too, and flagged when it grew by more than a
+ * quarter: linear memory has an exponent close to 1, a matrix of bins x items close to 2.
+ */
+public class ScalingHarness {
+    static final String CSV_HEADER =
+            "solver,distribution,items,budget_ms,time_ms,peak_heap_mb,allocated_mb,bins,lower_bound,excess_bins,status";
+    static final int MIN_ITEMS = 1000;
+    static final double OVERRUN = 1.5;     // times the budget
+    static final double GROWTH = 1.5;      // of the time, peak heap or allocation of a run
+    static final double EXPONENT_GROWTH = 0.25;
+
+    // One line of a report
+    static final class Run {
+        final String solver;
+        final String distribution;
+        final int items;
+        final long budget;
+        double time;
+        double peakHeap;
+        double allocated;
+        int bins;
+        int lowerBound;
+        String status = "ok";
+
+        Run(String solver, String distribution, int items, long budget) {
+            this.solver = solver;
+            this.distribution = distribution;
+            this.items = items;
+            this.budget = budget;
+        }
+
+        String key() {
+            return solver + "," + distribution + "," + items;
+        }
+
+        boolean ok() {
+            return status.equals("ok");
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%.1f,%.1f,%.1f,%d,%d,%d,%s", solver, distribution, items,
+                    budget, time, peakHeap, allocated, bins, lowerBound, bins - lowerBound, status);
+        }
+
+        static Run parse(String line) {
+            String[] fields = line.split(",");
+            Run run = new Run(fields[0], fields[1], Integer.parseInt(fields[2]), Long.parseLong(fields[3]));
+            run.time = Double.parseDouble(fields[4]);
+            run.peakHeap = Double.parseDouble(fields[5]);
+            run.allocated = Double.parseDouble(fields[6]);
+            run.bins = Integer.parseInt(fields[7]);
+            run.lowerBound = Integer.parseInt(fields[8]);
+            run.status = fields[10];
+            return run;
+        }
+    }
+
+    static Run run(String solverName, InstanceGenerator.Distribution distribution, int items, long budget,
+                   long seed) {
+        Run run = new Run(solverName, distribution.name().toLowerCase(Locale.ROOT), items, budget);
+        List<MemoryPoolMXBean> heap = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heap.add(pool);
+            }
+        }
+        try {
+            BinPackingInstance instance = InstanceGenerator.generate(distribution, items, seed);
+            SolverConfig config = new SolverConfig();
+            config.generations = Integer.MAX_VALUE;
+            config.iterations = Integer.MAX_VALUE;
+            config.antIterations = Integer.MAX_VALUE;
+            config.localSearchMoves = LocalSearch.movesFromSystemProperties();
+            Preprocessing solver = new Preprocessing(BatchSolver.solverNamed(solverName));
+            System.gc();
+            for (MemoryPoolMXBean pool : heap) {
+                pool.resetPeakUsage();
+            }
+            AllocationMeter allocations = new AllocationMeter(heap);
+            allocations.start();
+            long start = System.nanoTime();
+            long deadline = Incumbent.deadlineIn(budget);
+            Reduction reduction = Reduction.of(instance);
+            Incumbent incumbent = new Incumbent(instance, deadline);
+            Packing packing = solver.solve(reduction, config, seed, incumbent);
+            run.time = (System.nanoTime() - start) / 1e6;
+            run.allocated = allocations.stop() / 1048576.0;
+            run.bins = packing.binCount;
+            run.lowerBound = Math.max(reduction.lowerBound, incumbent.lowerBound);
+        } catch (OutOfMemoryError e) {
+            run.status = "oom";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.status = "interrupted";
+        } catch (RuntimeException e) {
+            run.status = "error";
+            System.err.println(run.key() + ": " + e);
+        }
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heap) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        run.peakHeap = peak / 1048576.0;
+        return run;
+    }
+
+    /*
+     * Bytes allocated on the heap between start() and stop(), by any thread: what is in use at the end, minus what
+     * was at the start, plus what the collections in between reclaimed. Collections report that in notifications
+     * that arrive on another thread, so stop() waits (a little) until it has seen as many as the collectors count.
+     */
+    static final class AllocationMeter implements NotificationListener {
+        private final List<MemoryPoolMXBean> heap;
+        private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        private final AtomicLong reclaimed = new AtomicLong();
+        private final AtomicLong notifications = new AtomicLong();
+        private long usedAtStart;
+        private long collectionsAtStart;
+
+        AllocationMeter(List<MemoryPoolMXBean> heap) {
+            this.heap = heap;
+        }
+
+        void start() {
+            for (GarbageCollectorMXBean collector : collectors) {
+                ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+            }
+            collectionsAtStart = collections();
+            usedAtStart = used();
+        }
+
+        long stop() throws InterruptedException {
+            long used = used();
+            long expected = collections() - collectionsAtStart;
+            for (int wait = 0; wait < 100 && notifications.get() < expected; wait++) {
+                Thread.sleep(10);
+            }
+            for (GarbageCollectorMXBean collector : collectors) {
+                try {
+                    ((NotificationEmitter) collector).removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    // not registered
+                }
+            }
+            return used - usedAtStart + reclaimed.get();
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+            GcInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData())
+                    .getGcInfo();
+            long freed = 0;
+            for (MemoryPoolMXBean pool : heap) {
+                MemoryUsage before = info.getMemoryUsageBeforeGc().get(pool.getName());
+                MemoryUsage after = info.getMemoryUsageAfterGc().get(pool.getName());
+                if (before != null && after != null) {
+                    freed += before.getUsed() - after.getUsed();
+                }
+            }
+            reclaimed.addAndGet(freed);
+            notifications.incrementAndGet();
+        }
+
+        private long used() {
+            long used = 0;
+            for (MemoryPoolMXBean pool : heap) {
+                used += pool.getUsage().getUsed();
+            }
+            return used;
+        }
+
+        private long collections() {
+            long count = 0;
+            for (GarbageCollectorMXBean collector : collectors) {
+                count += Math.max(collector.getCollectionCount(), 0);
+            }
+            return count;
+        }
+    }
+
+    // Writes the regressions of current against baseline to standard output and returns how many there are
+    static int compare(List<Run> baseline, List<Run> current) {
+        Map<String, Run> before = new LinkedHashMap<>();
+        for (Run run : baseline) {
+            before.put(run.key(), run);
+        }
+        int regressions = 0;
+        for (Run run : current) {
+            Run old = before.get(run.key());
+            if (old == null) {
+                continue;
+            }
+            List<String> reasons = new ArrayList<>();
+            if (!run.ok()) {
+                if (old.ok()) {
+                    reasons.add("status " + run.status);
+                }
+            } else {
+                if (run.time > OVERRUN * run.budget && old.time <= OVERRUN * old.budget) {
+                    reasons.add(String.format(Locale.ROOT, "overran its budget: %.0f ms for %d", run.time,
+                            run.budget));
+                }
+                if (grew(old.time, run.time, 50)) {
+                    reasons.add(String.format(Locale.ROOT, "time %.0f -> %.0f ms", old.time, run.time));
+                }
+                if (grew(old.peakHeap, run.peakHeap, 16)) {
+                    reasons.add(String.format(Locale.ROOT, "peak heap %.1f -> %.1f MB", old.peakHeap, run.peakHeap));
+                }
+                if (grew(old.allocated, run.allocated, 64)) {
+                    reasons.add(String.format(Locale.ROOT, "allocated %.1f -> %.1f MB", old.allocated,
+                            run.allocated));
+                }
+                if (old.ok() && run.bins - run.lowerBound > old.bins - old.lowerBound) {
+                    reasons.add("excess bins " + (old.bins - old.lowerBound) + " -> " + (run.bins - run.lowerBound));
+                }
+            }
+            if (!reasons.isEmpty()) {
+                regressions++;
+                System.out.println("REGRESSION " + run.key() + ": " + String.join(", ", reasons));
+            }
+        }
+        Map<String, double[]> exponents = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : heapExponents(current).entrySet()) {
+            exponents.put(entry.getKey(), new double[] {Double.NaN, entry.getValue()});
+        }
+        for (Map.Entry<String, Double> entry : heapExponents(baseline).entrySet()) {
+            double[] pair = exponents.get(entry.getKey());
+            if (pair != null) {
+                pair[0] = entry.getValue();
+            }
+        }
+        for (Map.Entry<String, double[]> entry : exponents.entrySet()) {
+            double[] pair = entry.getValue();
+            boolean worse = pair[1] > pair[0] + EXPONENT_GROWTH;
+            regressions += worse ? 1 : 0;
+            System.out.println(String.format(Locale.ROOT, "%s%s: peak heap grows as items^%.2f (baseline %.2f)",
+                    worse ? "REGRESSION " : "", entry.getKey(), pair[1], pair[0]));
+        }
+        return regressions;
+    }
+
+    // Grew by more than GROWTH times and by more than slack?
+    private static boolean grew(double before, double after, double slack) {
+        return after > GROWTH * before && after - before > slack;
+    }
+
+    // Least-squares slope of log(peak heap) against log(items), per solver and distribution with two sizes or more
+    static Map<String, Double> heapExponents(List<Run> runs) {
+        Map<String, List<Run>> series = new LinkedHashMap<>();
+        for (Run run : runs) {
+            if (run.ok() && run.peakHeap > 0) {
+                series.computeIfAbsent(run.solver + "," + run.distribution, key -> new ArrayList<>()).add(run);
+            }
+        }
+        Map<String, Double> exponents = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Run>> entry : series.entrySet()) {
+            List<Run> points = entry.getValue();
+            if (points.size() < 2) {
+                continue;
+            }
+            double sumX = 0;
+            double sumY = 0;
+            for (Run run : points) {
+                sumX += Math.log(run.items);
+                sumY += Math.log(run.peakHeap);
+            }
+            double meanX = sumX / points.size();
+            double meanY = sumY / points.size();
+            double covariance = 0;
+            double variance = 0;
+            for (Run run : points) {
+                double x = Math.log(run.items) - meanX;
+                covariance += x * (Math.log(run.peakHeap) - meanY);
+                variance += x * x;
+            }
+            exponents.put(entry.getKey(), covariance / variance);
+        }
+        return exponents;
+    }
+
+    static List<Run> read(String path) throws IOException {
+        List<Run> runs = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+            if (!line.isEmpty() && !line.equals(CSV_HEADER)) {
+                runs.add(Run.parse(line));
+            }
+        }
+        return runs;
+    }
+
+    /*
+     * Usage:
+     *   ScalingHarness [budget ms] [max items] [solvers] [distributions] [seed]
+     *       budget per run, default 1000 ms; max items, default 100000; solvers, comma-separated, default
+     *       GA,PSO,ACO; distributions, comma-separated, default uniform,falkenauer,triplet,vm; seed, default 42
+     *   ScalingHarness compare <baseline report> <current report>
+     *       exits with status 1 when a regression is found
+     * Run with a heap large enough for the largest instances (-Xmx): a run that exhausts it is reported as oom.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("compare")) {
+            if (args.length != 3) {
+                System.err.println("Usage: ScalingHarness compare <baseline report> <current report>");
+                System.exit(1);
+            }
+            int regressions = compare(read(args[1]), read(args[2]));
+            System.out.println(regressions + " regression" + (regressions == 1 ? "" : "s"));
+            System.exit(regressions == 0 ? 0 : 1);
+        }
+        long budget = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        int maxItems = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        String[] solvers = (args.length > 2 ? args[2] : "GA,PSO,ACO").split(",");
+        String[] distributions = (args.length > 3 ? args[3] : "uniform,falkenauer,triplet,vm").split(",");
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        System.out.println(CSV_HEADER);
+        for (String distribution : distributions) {
+            InstanceGenerator.Distribution generator = InstanceGenerator.distributionNamed(distribution);
+            for (int items = MIN_ITEMS; items <= maxItems; items *= 10) {
+                for (String solver : solvers) {
+                    System.out.println(run(solver, generator, items, budget, seed).toCsv());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package binpacking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/*
+ * Binary encoding of a solver state, written and read by Checkpoint. A snapshot is a header (magic number,
+ * format version, solver name, instance size and fingerprint), the fields of the solver in the order it wrote
+ * them, and a CRC-32 of all that. Integers are variable-length, 7 bits per byte, negative values zigzag-encoded:
+ * bins, loads and fitness values are small, so a packing costs one or two bytes per item. Floats, doubles and
+ * random states are kept as raw bits, which is what makes a resumed run bit-identical.
+ */
+final class Snapshot {
+    private static final int MAGIC = 0x42505331; // "BPS1"
+    private static final int VERSION = 2;
+
+    private Snapshot() {
+    }
+
+    // Hash of the demands and capacities, so that a snapshot is never resumed on another instance
+    static long fingerprint(BinPackingInstance instance) {
+        long hash = 0xCBF29CE484222325L;
+        for (int d = 0; d < instance.dimensions; d++) {
+            hash = (hash ^ instance.capacities[d]) * 0x100000001B3L;
+            for (int demand : instance.demands[d]) {
+                hash = (hash ^ demand) * 0x100000001B3L;
+            }
+        }
+        return hash;
+    }
+
+    static final class Writer {
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+
+        Writer(String solver, BinPackingInstance instance) {
+            buffer.putInt(MAGIC);
+            putInt(VERSION);
+            putString(solver);
+            putInt(instance.items);
+            putInt(instance.dimensions);
+            putLong(fingerprint(instance));
+        }
+
+        void putInt(int value) {
+            ensure(5);
+            int bits = (value << 1) ^ (value >> 31);
+            while ((bits & ~0x7F) != 0) {
+                buffer.put((byte) ((bits & 0x7F) | 0x80));
+                bits >>>= 7;
+            }
+            buffer.put((byte) bits);
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        // The first count values
+        void putInts(int[] values, int count) {
+            putInt(count);
+            for (int i = 0; i < count; i++) {
+                putInt(values[i]);
+            }
+        }
+
+        void putFloats(float[] values, int count) {
+            putInt(count);
+            ensure(4 * count);
+            for (int i = 0; i < count; i++) {
+                buffer.putFloat(values[i]);
+            }
+        }
+
+        void putRandom(Random random) {
+            if (!(random instanceof RestorableRandom)) {
+                throw new IllegalArgumentException("a checkpointed run needs a RestorableRandom");
+            }
+            putLong(((RestorableRandom) random).state());
+        }
+
+        // The best packing of the incumbent (may be null), in the numbering of that view
+        void putIncumbent(Incumbent incumbent) {
+            Packing best = incumbent == null ? null : incumbent.best();
+            putInt(best == null ? 0 : 1);
+            if (best != null) {
+                int[] assignment = incumbent.assignmentOf(best);
+                putInts(assignment, assignment.length);
+                putInt(best.binCount);
+                putInt(best.fitness);
+                putString(best.solver);
+            }
+        }
+
+        // Appends the checksum and returns the bytes, ready to be written
+        ByteBuffer finish() {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.position());
+            ensure(8);
+            buffer.putLong(crc.getValue());
+            buffer.flip();
+            return buffer;
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + bytes));
+                buffer.flip();
+                buffer = larger.put(buffer);
+            }
+        }
+    }
+
+    static final class Reader {
+        private final ByteBuffer buffer;
+        final String solver;
+        private final int items;
+        private final int dimensions;
+        private final long fingerprint;
+
+        // Checks the magic number, version and checksum; the buffer holds the whole file
+        Reader(ByteBuffer bytes) throws IOException {
+            this.buffer = bytes;
+            if (bytes.remaining() < 12 || bytes.getInt(0) != MAGIC) {
+                throw new IOException("not a solver snapshot");
+            }
+            int end = bytes.limit() - 8;
+            CRC32 crc = new CRC32();
+            crc.update(bytes.duplicate().limit(end));
+            if (crc.getValue() != bytes.getLong(end)) {
+                throw new IOException("corrupt snapshot (checksum mismatch)");
+            }
+            bytes.limit(end).position(4);
+            int version = getInt();
+            if (version != VERSION) {
+                throw new IOException("snapshot format " + version + ", expected " + VERSION);
+            }
+            this.solver = getString();
+            this.items = getInt();
+            this.dimensions = getInt();
+            this.fingerprint = getLong();
+        }
+
+        // The snapshot must be of this solver on this instance
+        void check(String solver, BinPackingInstance instance) {
+            if (!solver.equals(this.solver)) {
+                throw new IllegalStateException("snapshot of " + this.solver + ", not of " + solver);
+            }
+            if (items != instance.items || dimensions != instance.dimensions || fingerprint != fingerprint(instance)) {
+                throw new IllegalStateException("snapshot of another instance (" + items + " items, "
+                        + dimensions + " dimensions)");
+            }
+        }
+
+        int getInt() {
+            int bits = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                bits |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            return (bits >>> 1) ^ -(bits & 1);
+        }
+
+        long getLong() {
+            return buffer.getLong();
+        }
+
+        double getDouble() {
+            return buffer.getDouble();
+        }
+
+        String getString() {
+            byte[] bytes = new byte[getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int[] getInts() {
+            int[] values = new int[getInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = getInt();
+            }
+            return values;
+        }
+
+        float[] getFloats() {
+            float[] values = new float[getInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = buffer.getFloat();
+            }
+            return values;
+        }
+
+        RestorableRandom getRandom() {
+            return RestorableRandom.withState(getLong());
+        }
+
+        // Offers the saved best packing back to the incumbent (may be null)
+        void restoreIncumbent(Incumbent incumbent) {
+            if (getInt() == 0) {
+                return;
+            }
+            int[] assignment = getInts();
+            int binCount = getInt();
+            int fitness = getInt();
+            String solver = getString();
+            if (incumbent != null) {
+                incumbent.offer(assignment, binCount, fitness, solver);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package binpacking;
+
+/*
+ * Parameters of the solvers, with the values the programs have always used as defaults. Each solver reads its
+ * own group; the generation / iteration counts are upper bounds, a run also ends at the deadline or when the
+ * lower bound is reached (see Incumbent).
+ */
+public class SolverConfig implements Cloneable {
+    // Genetic algorithm
+    public int populationSize = 100;
+    public int generations = 1000;
+    public double mutationRate = 0.01;
+    public int islands = 1;              // more than one: island model, see BinPackingGeneticAlgorithm.runIslands
+    public int migrationInterval = 50;
+    public int migrants = 2;
+    public boolean ringTopology = true;
+
+    // Particle swarm
+    public int swarmSize = 100;
+    public int iterations = 1000;
+    public double inertiaWeight = 0.9;
+    public double cognitiveWeight = 2.0;
+    public double socialWeight = 2.0;
+
+    // Ant colony
+    public int ants = 64;
+    public int antIterations = 100;
+
+    // Move evaluations of each local search step of the three solvers, 0 for none (see LocalSearch)
+    public int localSearchMoves = 0;
+
+    // Worker threads of the GA islands and of the ant colony
+    public int threads = Runtime.getRuntime().availableProcessors();
+
+    // What the solvers minimize (see Objective); the placement objectives belong to the instance being solved
+    public Objective objective = Objective.BIN_COUNT;
+
+    // Progress metrics, null when nothing listens (see ProgressReporter)
+    public SolverMetrics metrics;
+
+    // Periodic snapshots of the run and resuming from them, null for none (see Checkpoint); single solvers only
+    public Checkpoint checkpoint;
+
+    // The same parameters minimizing another objective, e.g. the one of a sub-instance (see IncrementalSolver)
+    SolverConfig withObjective(Objective objective) {
+        try {
+            SolverConfig config = (SolverConfig) clone();
+            config.objective = objective;
+            return config;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package binpacking;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Progress of one solver run, updated by the solver threads without locks and sampled by a ProgressReporter.
+ * Solvers take a nullable SolverMetrics: with null they skip every measurement, including the clock reads
+ * and the mean fitness computation, so an unobserved run pays nothing.
+ *
+ * A generation is one step of the main loop (a GA generation of any island, a PSO or ACO iteration) and an
+ * evaluation one candidate packing built during it.
+ *
+ * A solver run on the residual instance of a reduction (see Preprocessing) reports on the residual packings;
+ * the offsets, the bins fixed by the reduction and their score, turn its figures into those of the whole
+ * instance, like the final result. The ACO reports bin counts (see binGeneration), the others fitness.
+ */
+public final class SolverMetrics {
+    private final LongAdder generations = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final AtomicInteger bestFitness = new AtomicInteger(Integer.MAX_VALUE);
+    private volatile double meanFitness = Double.NaN;
+    private volatile int binOffset;
+    private volatile int fitnessOffset;
+    private final LatencyHistogram generationNanos = new LatencyHistogram();
+
+    // Called by the thread that ran the generation, start being its System.nanoTime() when the generation began
+    public void generation(long start, int bestFitness, double meanFitness, int evaluations) {
+        record(start, bestFitness + fitnessOffset, meanFitness + fitnessOffset, evaluations);
+    }
+
+    // Same, for a solver that ranks its packings by bin count
+    public void binGeneration(long start, int bestBins, double meanBins, int evaluations) {
+        record(start, bestBins + binOffset, meanBins + binOffset, evaluations);
+    }
+
+    private void record(long start, int bestFitness, double meanFitness, int evaluations) {
+        generationNanos.record(System.nanoTime() - start);
+        generations.increment();
+        this.evaluations.add(evaluations);
+        this.meanFitness = meanFitness;
+        if (bestFitness < this.bestFitness.get()) {
+            this.bestFitness.accumulateAndGet(bestFitness, Math::min);
+        }
+    }
+
+    // Added to the bin counts and the fitness of every later generation
+    void setOffsets(int binOffset, int fitnessOffset) {
+        this.binOffset = binOffset;
+        this.fitnessOffset = fitnessOffset;
+    }
+
+    public long generations() {
+        return generations.sum();
+    }
+
+    public long evaluations() {
+        return evaluations.sum();
+    }
+
+    // Best fitness seen so far, Integer.MAX_VALUE before the first generation
+    public int bestFitness() {
+        return bestFitness.get();
+    }
+
+    // Mean fitness of the population (swarm, colony) after the last generation, NaN before the first one
+    public double meanFitness() {
+        return meanFitness;
+    }
+
+    public LatencyHistogram generationNanos() {
+        return generationNanos;
+    }
+}
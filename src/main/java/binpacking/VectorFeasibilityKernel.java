@@ -0,0 +1,55 @@
+package binpacking;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * FeasibilityKernel on the JDK Vector API: the loads of SPECIES.length() consecutive bins are compared with
+ * capacity - demand in every dimension and the masks are combined. Only loaded through FeasibilityKernel.load(),
+ * which checks that the incubator module is present.
+ */
+final class VectorFeasibilityKernel implements FeasibilityKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorMask<Integer> fits(int[] loads, int stride, int bin, int[][] demands, int[] capacities, int item) {
+        VectorMask<Integer> fits = IntVector.fromArray(SPECIES, loads, bin)
+                .compare(VectorOperators.LE, capacities[0] - demands[0][item]);
+        for (int d = 1; d < capacities.length; d++) {
+            fits = fits.and(IntVector.fromArray(SPECIES, loads, d * stride + bin)
+                    .compare(VectorOperators.LE, capacities[d] - demands[d][item]));
+        }
+        return fits;
+    }
+
+    @Override
+    public void fitMask(int[] loads, int stride, int from, int to, int[][] demands, int[] capacities, int item,
+                        boolean[] mask) {
+        int bin = from;
+        for (int upper = from + SPECIES.loopBound(to - from); bin < upper; bin += SPECIES.length()) {
+            fits(loads, stride, bin, demands, capacities, item).intoArray(mask, bin);
+        }
+        for (; bin < to; bin++) {
+            mask[bin] = Scalar.fits(loads, stride, bin, demands, capacities, item);
+        }
+    }
+
+    @Override
+    public int firstFit(int[] loads, int stride, int from, int to, int[][] demands, int[] capacities, int item) {
+        int bin = from;
+        for (int upper = from + SPECIES.loopBound(to - from); bin < upper; bin += SPECIES.length()) {
+            VectorMask<Integer> fits = fits(loads, stride, bin, demands, capacities, item);
+            if (fits.anyTrue()) {
+                return bin + fits.firstTrue();
+            }
+        }
+        for (; bin < to; bin++) {
+            if (Scalar.fits(loads, stride, bin, demands, capacities, item)) {
+                return bin;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,77 @@
+package binpacking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchSolverTest {
+    static final int INSTANCES = 12;
+    static final int ITEMS = 120;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesOneLinePerInstance() throws Exception {
+        BatchSolver.generate(directory, INSTANCES, ITEMS, 42, InstanceGenerator.Distribution.FALKENAUER);
+        BatchSolver batch = batch();
+        List<String> lines = run(batch);
+        assertEquals(BatchSolver.CSV_HEADER, lines.get(0));
+        assertEquals(INSTANCES + 1, lines.size());
+        Set<String> paths = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            assertEquals(BatchSolver.CSV_HEADER.split(",").length, fields.length, line);
+            paths.add(fields[0]);
+            BinPackingInstance instance = InstanceLoader.load(fields[0]);
+            assertEquals(ITEMS, Integer.parseInt(fields[1]));
+            int bins = Integer.parseInt(fields[2]);
+            int lowerBound = Integer.parseInt(fields[3]);
+            assertEquals(LowerBounds.l2(instance), lowerBound, line);
+            assertTrue(bins >= lowerBound, line);
+            assertTrue(Double.parseDouble(fields[6]) >= 0, line);
+        }
+        assertEquals(INSTANCES, paths.size(), "every instance once");
+        assertEquals(INSTANCES, batch.solved());
+        assertEquals(0, batch.failures());
+        assertEquals(INSTANCES, batch.latencies().count());
+    }
+
+    // A file that is not an instance is counted as a failure, without a line, and the others are still solved
+    @Test
+    void skipsUnreadableInstances() throws Exception {
+        BatchSolver.generate(directory, 3, ITEMS, 7, InstanceGenerator.Distribution.UNIFORM);
+        Files.write(directory.resolve("broken.txt"), "3\n10\nx\n".getBytes(StandardCharsets.US_ASCII));
+        BatchSolver batch = batch();
+        List<String> lines = run(batch);
+        assertEquals(4, lines.size());
+        assertEquals(3, batch.solved());
+        assertEquals(1, batch.failures());
+    }
+
+    private static BatchSolver batch() {
+        SolverConfig config = new SolverConfig();
+        config.threads = 1;
+        config.iterations = 20;
+        return new BatchSolver(new Preprocessing(new BinPackingPSO()), config, 1000, 42, 4);
+    }
+
+    private List<String> run(BatchSolver batch) throws IOException, InterruptedException {
+        StringWriter text = new StringWriter();
+        try (BufferedWriter out = new BufferedWriter(text)) {
+            batch.run(BatchSolver.instances(directory.toString()), out);
+        }
+        return text.toString().lines().toList();
+    }
+}
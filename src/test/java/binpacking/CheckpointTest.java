@@ -0,0 +1,150 @@
+package binpacking;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * A run stopped after STOP generations and resumed from its snapshot up to GENERATIONS must end in the same state
+ * as a run of GENERATIONS without interruption: the final snapshots are compared byte for byte. The uninterrupted
+ * run saves a snapshot every generation on top, which must not change its course either.
+ */
+class CheckpointTest {
+    static final int STOP = 10;
+    static final int GENERATIONS = 25;
+    static final long SEED = 42;
+    static final long HOUR = 3_600_000;
+
+    @TempDir
+    Path directory;
+
+    // Items in decreasing order, as the GA takes them
+    private final BinPackingInstance instance = sorted(
+            InstanceGenerator.generate(InstanceGenerator.Distribution.FALKENAUER, 120, 3));
+
+    @FunctionalInterface
+    interface Run {
+        void run(SolverConfig config) throws Exception;
+    }
+
+    @Test
+    void resumesGeneticAlgorithm() throws Exception {
+        SolverConfig config = config();
+        config.populationSize = 30;
+        assertResumes(config, Field.GENERATIONS, c -> BinPackingGeneticAlgorithm.solve(instance, c,
+                new RestorableRandom(SEED), null));
+    }
+
+    // STOP is a multiple of the migration interval: a run only stops between two epochs
+    @Test
+    void resumesIslands() throws Exception {
+        SolverConfig config = config();
+        config.populationSize = 20;
+        config.islands = 4;
+        config.migrationInterval = 5;
+        config.ringTopology = false;
+        config.threads = 2;
+        assertResumes(config, Field.GENERATIONS, c -> BinPackingGeneticAlgorithm.runIslands(instance, c, SEED,
+                null));
+    }
+
+    @Test
+    void resumesSwarm() throws Exception {
+        SolverConfig config = config();
+        config.swarmSize = 20;
+        assertResumes(config, Field.ITERATIONS, c -> BinPackingPSO.solve(instance, c, new RestorableRandom(SEED),
+                null));
+    }
+
+    @Test
+    void resumesColony() throws Exception {
+        SolverConfig config = config();
+        config.ants = 16;
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertResumes(config, Field.ANT_ITERATIONS, c -> AntColonyOptimization.solve(instance, c, SEED, pool,
+                    null));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // A snapshot is only resumed by the solver and on the instance it was taken with
+    @Test
+    void rejectsAnotherInstance() throws Exception {
+        SolverConfig config = config();
+        config.swarmSize = 10;
+        config.iterations = STOP;
+        Path path = directory.resolve("swarm.snapshot");
+        run(config, path, false, c -> BinPackingPSO.solve(instance, c, new RestorableRandom(SEED), null));
+        BinPackingInstance other = InstanceGenerator.generate(InstanceGenerator.Distribution.FALKENAUER, 120, 4);
+        try (Checkpoint checkpoint = new Checkpoint(path, HOUR, true)) {
+            config.checkpoint = checkpoint;
+            assertThrows(IllegalStateException.class, () -> BinPackingPSO.solve(other, config,
+                    new RestorableRandom(SEED), null));
+        }
+    }
+
+    // The loop count each solver runs for
+    enum Field {
+        GENERATIONS, ITERATIONS, ANT_ITERATIONS;
+
+        void set(SolverConfig config, int count) {
+            switch (this) {
+                case GENERATIONS:
+                    config.generations = count;
+                    break;
+                case ITERATIONS:
+                    config.iterations = count;
+                    break;
+                default:
+                    config.antIterations = count;
+            }
+        }
+    }
+
+    private void assertResumes(SolverConfig config, Field field, Run solver) throws Exception {
+        field.set(config, GENERATIONS);
+        byte[] uninterrupted = run(config, directory.resolve("uninterrupted.snapshot"), false, solver, 0);
+        Path path = directory.resolve("interrupted.snapshot");
+        field.set(config, STOP);
+        byte[] stopped = run(config, path, false, solver, HOUR);
+        assertFalse(Arrays.equals(uninterrupted, stopped), "the first part is the whole run");
+        field.set(config, GENERATIONS);
+        assertArrayEquals(uninterrupted, run(config, path, true, solver, HOUR));
+    }
+
+    private static byte[] run(SolverConfig config, Path path, boolean resume, Run solver) throws Exception {
+        return run(config, path, resume, solver, HOUR);
+    }
+
+    // Runs the solver with a checkpoint on path and returns the snapshot it ended with
+    private static byte[] run(SolverConfig config, Path path, boolean resume, Run solver, long intervalMillis)
+            throws Exception {
+        try (Checkpoint checkpoint = new Checkpoint(path, intervalMillis, resume)) {
+            config.checkpoint = checkpoint;
+            solver.run(config);
+        } finally {
+            config.checkpoint = null;
+        }
+        return Files.readAllBytes(path);
+    }
+
+    private static SolverConfig config() {
+        SolverConfig config = new SolverConfig();
+        config.threads = 1;
+        config.localSearchMoves = 200;
+        return config;
+    }
+
+    private static BinPackingInstance sorted(BinPackingInstance instance) {
+        return instance.permute(ConstructionHeuristics.decreasingOrder(instance));
+    }
+}
@@ -0,0 +1,114 @@
+package binpacking;
+
+import static binpacking.PackingAssertions.assertFeasible;
+import static binpacking.PackingAssertions.assertSameInstance;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class IncrementalSolverTest {
+    private final BinPackingInstance previous =
+            InstanceGenerator.generate(InstanceGenerator.Distribution.FALKENAUER, 300, 5);
+    private final int[] previousAssignment = new int[previous.items];
+    private final int previousBins = ConstructionHeuristics.pack(previous,
+            ConstructionHeuristics.decreasingOrder(previous), ConstructionHeuristics.Rule.FIRST_FIT,
+            previousAssignment, previous.newLoads());
+
+    @Test
+    void carriesThePackingOverTheChanges() {
+        InstanceDelta delta = new InstanceDelta(previous.items);
+        for (int item = 0; item < previous.items; item += 30) {
+            delta.remove(item);
+        }
+        for (int item = 5; item < previous.items; item += 50) {
+            delta.resize(item, 100);
+        }
+        for (int k = 0; k < 15; k++) {
+            delta.add(20 + 5 * k);
+        }
+        IncrementalSolver.Update update = update(delta, null);
+        assertSameInstance(delta.apply(previous), update.instance);
+        assertFeasible(update.instance, update.packing.assignment, update.packing.binCount);
+        assertTrue(update.packing.binCount >= LowerBounds.l2(update.instance));
+        assertTrue(update.packing.binCount <= previousBins + 15);
+        assertEquals(Objective.BIN_COUNT.score(update.instance, update.packing.assignment, update.packing.binCount),
+                update.packing.fitness);
+    }
+
+    // Without changes only the NEIGHBOUR_BINS least filled bins are re-optimized, so only their items can move
+    @Test
+    void movesOnlyTheItemsOfTheRegion() {
+        IncrementalSolver.Update update = update(new InstanceDelta(previous.items), null);
+        assertFeasible(update.instance, update.packing.assignment, update.packing.binCount);
+        assertTrue(update.packing.binCount <= previousBins);
+        assertEquals(0, update.evicted);
+        assertEquals(IncrementalSolver.NEIGHBOUR_BINS, update.regionBins);
+        long[] loads = new long[previousBins];
+        int[] counts = new int[previousBins];
+        for (int item = 0; item < previous.items; item++) {
+            loads[previousAssignment[item]] += previous.weights[item];
+            counts[previousAssignment[item]]++;
+        }
+        Integer[] bins = new Integer[previousBins];
+        Arrays.setAll(bins, bin -> bin);
+        Arrays.sort(bins, (bin1, bin2) -> Long.compare(loads[bin1], loads[bin2]));
+        int regionItems = 0;
+        for (int k = 0; k < IncrementalSolver.NEIGHBOUR_BINS; k++) {
+            regionItems += counts[bins[k]];
+        }
+        assertTrue(update.migrations <= regionItems, update.migrations + " migrations");
+    }
+
+    // Item 0 grows out of its bin: it is evicted, and the items of the other bin stay where they were
+    @Test
+    void evictsTheLargestItemsOfAnOverfullBin() {
+        BinPackingInstance small = new BinPackingInstance(new int[] {6, 4, 5, 5}, 10);
+        InstanceDelta delta = new InstanceDelta(small.items);
+        delta.resize(0, 8);
+        IncrementalSolver.Update update = IncrementalSolver.update(small, new int[] {0, 0, 1, 1}, delta,
+                new BinPackingPSO(), config(), 42, Incumbent.NO_DEADLINE);
+        int[] assignment = update.packing.assignment;
+        assertFeasible(update.instance, assignment, update.packing.binCount);
+        assertEquals(1, update.evicted);
+        assertEquals(3, update.packing.binCount);
+        assertEquals(1, update.migrations);
+        assertEquals(assignment[2], assignment[3]);
+        assertTrue(assignment[0] != assignment[1]);
+    }
+
+    @Test
+    void keepsThePackingFeasibleUnderMigrationCosts() {
+        InstanceDelta delta = new InstanceDelta(previous.items);
+        for (int item = 1; item < previous.items; item += 40) {
+            delta.resize(item, 120);
+        }
+        int[] costs = new int[previous.items];
+        Arrays.fill(costs, 1);
+        IncrementalSolver.Update update = update(delta, costs);
+        assertFeasible(update.instance, update.packing.assignment, update.packing.binCount);
+        assertTrue(update.evicted > 0);
+    }
+
+    @Test
+    void isDeterministic() {
+        InstanceDelta delta = new InstanceDelta(previous.items);
+        delta.remove(7);
+        delta.add(90);
+        assertArrayEquals(update(delta, null).packing.assignment, update(delta, null).packing.assignment);
+    }
+
+    private IncrementalSolver.Update update(InstanceDelta delta, int[] migrationCosts) {
+        return IncrementalSolver.update(previous, previousAssignment, delta, migrationCosts, new BinPackingPSO(),
+                config(), 42, Incumbent.NO_DEADLINE);
+    }
+
+    private static SolverConfig config() {
+        SolverConfig config = new SolverConfig();
+        config.threads = 1;
+        config.iterations = 20;
+        return config;
+    }
+}
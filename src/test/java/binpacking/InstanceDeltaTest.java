@@ -0,0 +1,68 @@
+package binpacking;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstanceDeltaTest {
+    @TempDir
+    Path directory;
+
+    private final BinPackingInstance previous = new BinPackingInstance(new int[][] {{5, 6, 7, 8}, {1, 2, 3, 4}},
+            new int[] {10, 20});
+
+    // Remaining items keep their order, resized ones their place, added ones follow
+    @Test
+    void appliesChanges() {
+        InstanceDelta delta = new InstanceDelta(previous.items);
+        delta.remove(1);
+        delta.resize(2, 3, 9);
+        delta.add(9, 5);
+        delta.add(1, 1);
+        BinPackingInstance instance = delta.apply(previous);
+        assertArrayEquals(new int[] {5, 3, 8, 9, 1}, instance.demands[0]);
+        assertArrayEquals(new int[] {1, 9, 4, 5, 1}, instance.demands[1]);
+        assertArrayEquals(new int[] {10, 20}, instance.capacities);
+        assertArrayEquals(new int[] {0, -1, 1, 2}, delta.itemMap());
+    }
+
+    @Test
+    void removalOverridesAResize() {
+        InstanceDelta delta = new InstanceDelta(previous.items);
+        delta.resize(0, 1, 1);
+        delta.remove(0);
+        BinPackingInstance instance = delta.apply(previous);
+        assertArrayEquals(new int[] {6, 7, 8}, instance.demands[0]);
+        assertFalse(delta.isResized(0));
+    }
+
+    @Test
+    void emptyDeltaKeepsTheInstance() {
+        PackingAssertions.assertSameInstance(previous, new InstanceDelta(previous.items).apply(previous));
+    }
+
+    @Test
+    void readsTextFormat() throws IOException {
+        Path path = write("# arrivals and departures\nadd 2 2\n\nremove 3\nresize 0 4 4\n");
+        BinPackingInstance instance = InstanceDelta.read(path, previous).apply(previous);
+        assertArrayEquals(new int[] {4, 6, 7, 2}, instance.demands[0]);
+        assertArrayEquals(new int[] {4, 2, 3, 2}, instance.demands[1]);
+    }
+
+    @Test
+    void rejectsAMissingDemand() throws IOException {
+        Path path = write("add 2\n");
+        assertThrows(IOException.class, () -> InstanceDelta.read(path, previous));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("delta.txt"), content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
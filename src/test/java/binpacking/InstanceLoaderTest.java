@@ -0,0 +1,91 @@
+package binpacking;
+
+import static binpacking.PackingAssertions.assertSameInstance;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstanceLoaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsTextWithAnyWhitespace() throws IOException {
+        Path path = write("text.txt", "4\n10\n7 3\r\n\t6\n  4\n");
+        BinPackingInstance instance = InstanceLoader.load(path);
+        assertEquals(1, instance.dimensions);
+        assertEquals(10, instance.capacity);
+        assertArrayEquals(new int[] {7, 3, 6, 4}, instance.weights);
+    }
+
+    @Test
+    void readsVectorText() throws IOException {
+        Path path = write("vector.txt", "vector 3 2\n64 256\n1 4\n2 8\n16 64\n");
+        BinPackingInstance instance = InstanceLoader.load(path);
+        assertEquals(2, instance.dimensions);
+        assertArrayEquals(new int[] {64, 256}, instance.capacities);
+        assertArrayEquals(new int[] {1, 2, 16}, instance.demands[0]);
+        assertArrayEquals(new int[] {4, 8, 64}, instance.demands[1]);
+    }
+
+    @Test
+    void roundTripsText() throws IOException {
+        BinPackingInstance instance = InstanceGenerator.generate(InstanceGenerator.Distribution.FALKENAUER, 250, 1);
+        Path path = directory.resolve("falkenauer.txt");
+        InstanceLoader.writeText(path, instance);
+        assertSameInstance(instance, InstanceLoader.load(path));
+    }
+
+    @Test
+    void roundTripsVectorText() throws IOException {
+        BinPackingInstance instance = InstanceGenerator.generate(InstanceGenerator.Distribution.VM, 250, 2);
+        Path path = directory.resolve("vm.txt");
+        InstanceLoader.writeText(path, instance);
+        assertEquals(InstanceLoader.VECTOR_KEYWORD, Files.readAllLines(path).get(0).split(" ")[0]);
+        assertSameInstance(instance, InstanceLoader.load(path));
+    }
+
+    @Test
+    void roundTripsBinary() throws IOException {
+        BinPackingInstance instance = InstanceGenerator.generate(InstanceGenerator.Distribution.FALKENAUER, 250, 3);
+        Path path = directory.resolve("falkenauer.bin");
+        InstanceLoader.writeBinary(path, instance);
+        assertEquals(InstanceLoader.MAGIC, magic(path));
+        assertEquals(InstanceLoader.HEADER_BYTES + 4L * instance.items, Files.size(path));
+        assertSameInstance(instance, InstanceLoader.load(path));
+    }
+
+    @Test
+    void roundTripsVectorBinary() throws IOException {
+        BinPackingInstance instance = InstanceGenerator.generate(InstanceGenerator.Distribution.VM, 250, 4);
+        Path path = directory.resolve("vm.bin");
+        InstanceLoader.writeBinary(path, instance);
+        assertEquals(InstanceLoader.VECTOR_MAGIC, magic(path));
+        assertSameInstance(instance, InstanceLoader.load(path));
+    }
+
+    // The same instance through text and binary
+    @Test
+    void convertsTextToBinary() throws IOException {
+        BinPackingInstance text = InstanceLoader.load("input.txt");
+        Path path = directory.resolve("input.bin");
+        InstanceLoader.writeBinary(path, text);
+        assertSameInstance(text, InstanceLoader.load(path));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static int magic(Path path) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path), 0, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+}
@@ -0,0 +1,60 @@
+package binpacking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LowerBoundsTest {
+
+    // Three items over half the capacity: L1 counts the weight (2 bins), L2 that no two share a bin (3)
+    @Test
+    void countsItemsThatCannotShareABin() {
+        BinPackingInstance instance = new BinPackingInstance(new int[] {6, 6, 6}, 10);
+        assertEquals(2, LowerBounds.l1(instance));
+        assertEquals(3, LowerBounds.l2(instance));
+    }
+
+    @Test
+    void isTheTotalWeightWhenItemsAreSmall() {
+        BinPackingInstance instance = new BinPackingInstance(new int[] {3, 3, 3, 3, 3, 3, 3}, 10);
+        assertEquals(3, LowerBounds.l1(instance));
+        assertEquals(3, LowerBounds.l2(instance));
+    }
+
+    // The large items take a bin each and leave too little room for the weight of the small ones
+    @Test
+    void addsTheSmallItemsThatDoNotFitNextToTheLargeOnes() {
+        BinPackingInstance instance = new BinPackingInstance(new int[] {7, 7, 4, 4, 4, 4}, 10);
+        assertEquals(3, LowerBounds.l1(instance));
+        assertEquals(4, LowerBounds.l2(instance));
+    }
+
+    @Test
+    void takesTheLargestBoundOverTheDimensions() {
+        int[][] demands = {{1, 1, 1}, {6, 6, 6}};
+        assertEquals(3, LowerBounds.l2(new BinPackingInstance(demands, new int[] {10, 10})));
+        assertEquals(3, LowerBounds.l2(new BinPackingInstance(new int[][] {demands[1], demands[0]},
+                new int[] {10, 10})));
+    }
+
+    @Test
+    void boundsInputTxt() throws Exception {
+        assertEquals(102, LowerBounds.l2(InstanceLoader.load("input.txt")));
+    }
+
+    // L1 <= L2 <= bins of first-fit decreasing
+    @Test
+    void liesBetweenL1AndFirstFitDecreasing() {
+        for (InstanceGenerator.Distribution distribution : InstanceGenerator.Distribution.values()) {
+            for (long seed = 0; seed < 20; seed++) {
+                BinPackingInstance instance = InstanceGenerator.generate(distribution, 120, seed);
+                int bins = ConstructionHeuristics.pack(instance, ConstructionHeuristics.decreasingOrder(instance),
+                        ConstructionHeuristics.Rule.FIRST_FIT, new int[instance.items], instance.newLoads());
+                int l2 = LowerBounds.l2(instance);
+                assertTrue(LowerBounds.l1(instance) <= l2, distribution + " " + seed);
+                assertTrue(l2 <= bins, distribution + " " + seed);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package binpacking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks shared by the tests: a packing places every item in a bin 0..binCount-1, uses them all, and overfills none
+final class PackingAssertions {
+
+    private PackingAssertions() {
+    }
+
+    static void assertFeasible(BinPackingInstance instance, int[] assignment, int binCount) {
+        assertEquals(instance.items, assignment.length, "items assigned");
+        long[][] loads = new long[instance.dimensions][binCount];
+        boolean[] used = new boolean[binCount];
+        for (int item = 0; item < instance.items; item++) {
+            int bin = assignment[item];
+            assertTrue(bin >= 0 && bin < binCount, "item " + item + " in bin " + bin + " of " + binCount);
+            used[bin] = true;
+            for (int d = 0; d < instance.dimensions; d++) {
+                loads[d][bin] += instance.demands[d][item];
+            }
+        }
+        for (int bin = 0; bin < binCount; bin++) {
+            assertTrue(used[bin], "bin " + bin + " is empty");
+            for (int d = 0; d < instance.dimensions; d++) {
+                assertTrue(loads[d][bin] <= instance.capacities[d], "bin " + bin + " overfull in dimension " + d);
+            }
+        }
+    }
+
+    static void assertSameInstance(BinPackingInstance expected, BinPackingInstance actual) {
+        assertEquals(expected.items, actual.items, "items");
+        assertEquals(expected.dimensions, actual.dimensions, "dimensions");
+        for (int d = 0; d < expected.dimensions; d++) {
+            assertEquals(expected.capacities[d], actual.capacities[d], "capacity in dimension " + d);
+            for (int item = 0; item < expected.items; item++) {
+                assertEquals(expected.demands[d][item], actual.demands[d][item], "demand of item " + item);
+            }
+        }
+    }
+}
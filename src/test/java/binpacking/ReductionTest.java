@@ -0,0 +1,81 @@
+package binpacking;
+
+import static binpacking.PackingAssertions.assertFeasible;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ReductionTest {
+
+    // 7 with 3, 6 with 4 and 5 with 5 fill their bins exactly: everything is fixed
+    @Test
+    void fixesItemsWithTheirExactComplement() {
+        Reduction reduction = Reduction.of(new BinPackingInstance(new int[] {7, 3, 6, 4, 5, 5}, 10));
+        assertEquals(3, reduction.fixedBins);
+        assertEquals(0, reduction.residual.items);
+        assertEquals(3, reduction.lowerBound);
+        assertFeasible(reduction.instance, reduction.combine(new int[0]), reduction.fixedBins);
+    }
+
+    // 6 leaves room for two of the 2s: which one goes with it is not known, so nothing is fixed
+    @Test
+    void keepsItemsWhoseBinIsNotDetermined() {
+        Reduction reduction = Reduction.of(new BinPackingInstance(new int[] {2, 6, 2, 2}, 10));
+        assertEquals(0, reduction.fixedBins);
+        assertArrayEquals(new int[] {-1, -1, -1, -1}, reduction.fixedAssignment);
+        assertEquals(1, reduction.residualItems[0]); // residual items by decreasing size
+        assertArrayEquals(new int[] {6, 2, 2, 2}, reduction.residual.weights);
+        assertEquals(LowerBounds.l2(reduction.residual), reduction.lowerBound);
+    }
+
+    // No other item fits next to 60 and 50, and 30 + 30 + 30 fill a bin: 3 bins, where L2 only proves 2
+    @Test
+    void boundsTighterThanL2() {
+        BinPackingInstance instance = new BinPackingInstance(new int[] {60, 50, 30, 30, 30}, 100);
+        Reduction reduction = Reduction.of(instance);
+        assertEquals(2, LowerBounds.l2(instance));
+        assertEquals(3, reduction.lowerBound);
+        assertFeasible(instance, reduction.combine(new int[0]), reduction.fixedBins);
+    }
+
+    @Test
+    void reducesInputTxt() throws Exception {
+        BinPackingInstance instance = InstanceLoader.load("input.txt");
+        Reduction reduction = Reduction.of(instance);
+        assertEquals(65, reduction.fixedBins);
+        assertEquals(120, reduction.residual.items);
+        assertEquals(78, reduction.weightClasses);
+        assertEquals(102, reduction.lowerBound);
+        assertFixedBinsFeasible(reduction);
+    }
+
+    // Fixed bins plus any packing of the residual instance is a packing of the instance
+    @Test
+    void combinesWithAResidualPacking() {
+        for (InstanceGenerator.Distribution distribution : InstanceGenerator.Distribution.values()) {
+            for (long seed = 0; seed < 10; seed++) {
+                Reduction reduction = Reduction.of(InstanceGenerator.generate(distribution, 200, seed));
+                BinPackingInstance residual = reduction.residual;
+                int[] assignment = new int[residual.items];
+                int bins = ConstructionHeuristics.pack(residual, ConstructionHeuristics.decreasingOrder(residual),
+                        ConstructionHeuristics.Rule.FIRST_FIT, assignment, residual.newLoads());
+                assertFeasible(reduction.instance, reduction.combine(assignment), reduction.fixedBins + bins);
+                assertTrue(reduction.lowerBound <= reduction.fixedBins + bins, distribution + " " + seed);
+            }
+        }
+    }
+
+    private static void assertFixedBinsFeasible(Reduction reduction) {
+        BinPackingInstance instance = reduction.instance;
+        int[] loads = new int[reduction.fixedBins];
+        for (int item = 0; item < instance.items; item++) {
+            int bin = reduction.fixedAssignment[item];
+            if (bin >= 0) {
+                loads[bin] += instance.weights[item];
+                assertTrue(loads[bin] <= instance.capacity, "fixed bin " + bin + " overfull");
+            }
+        }
+    }
+}